@@ -46,8 +46,11 @@
 import org.spongepowered.api.service.scheduler.AsynchronousScheduler;
 import org.spongepowered.api.service.scheduler.SynchronousScheduler;
 import org.spongepowered.api.service.sql.SqlService;
+import org.spongepowered.common.command.SpongeCommand;
 import org.spongepowered.common.command.SpongeCommandDisambiguator;
 import org.spongepowered.common.configuration.SpongeConfig;
+import org.spongepowered.common.event.EventTimings;
+import org.spongepowered.common.event.SpongeEventManager;
 import org.spongepowered.common.launch.SpongeLaunch;
 import org.spongepowered.common.registry.SpongeGameRegistry;
 import org.spongepowered.common.service.pagination.SpongePaginationService;
@@ -56,6 +59,7 @@
 import org.spongepowered.common.service.scheduler.AsyncScheduler;
 import org.spongepowered.common.service.scheduler.SyncScheduler;
 import org.spongepowered.common.service.sql.SqlServiceImpl;
+import org.spongepowered.common.world.gen.WorldPregenerator;
 
 import java.io.File;
 
@@ -107,10 +111,16 @@ public void registerServices() {
         try {
             SimpleCommandService commandService = new SimpleCommandService(this.game, this.slf4jLogger, new SpongeCommandDisambiguator(this.game));
             this.game.getServiceManager().setProvider(this.plugin, CommandService.class, commandService);
+            commandService.register(this.plugin, SpongeCommand.getCommand(), "sponge");
         } catch (ProviderExistsException e) {
             this.logger.warn("Non-Sponge CommandService already registered: " + e.getLocalizedMessage());
         }
 
+        SpongeConfig.EventCategory eventConfig = getGlobalConfig().getConfig().getEvent();
+        EventTimings timings = getSpongeEventManager().getTimings();
+        timings.setSampleInterval(Math.max(1, eventConfig.getTimingsSampleInterval()));
+        timings.setEnabled(eventConfig.useTimings());
+
         try {
             this.game.getServiceManager().setProvider(this.plugin, SqlService.class, new SqlServiceImpl());
         } catch (ProviderExistsException e) {
@@ -138,6 +148,12 @@ public void registerServices() {
             this.logger.warn("Non-Sponge PaginationService already registered: " + e.getLocalizedMessage());
         }
 
+        try {
+            this.game.getServiceManager().setProvider(this.plugin, WorldPregenerator.class, WorldPregenerator.getInstance());
+        } catch (ProviderExistsException e) {
+            this.logger.warn("Non-Sponge WorldPregenerator already registered: " + e.getLocalizedMessage());
+        }
+
         if (this.game.getPlatform().getType() == Platform.Type.SERVER) {
             try {
                 this.game.getServiceManager().setProvider(this.plugin, RconService.class, new MinecraftRconService((DedicatedServer)
@@ -161,6 +177,10 @@ public static SpongeGameRegistry getSpongeRegistry() {
         return ((SpongeGameRegistry) getInstance().game.getRegistry());
     }
 
+    public static SpongeEventManager getSpongeEventManager() {
+        return (SpongeEventManager) getInstance().game.getEventManager();
+    }
+
     public static Logger getLogger() {
         return getInstance().logger;
     }
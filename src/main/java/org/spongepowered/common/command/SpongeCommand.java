@@ -0,0 +1,253 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.command;
+
+import static org.spongepowered.api.util.command.args.GenericArguments.integer;
+import static org.spongepowered.api.util.command.args.GenericArguments.optional;
+import static org.spongepowered.api.util.command.args.GenericArguments.string;
+import static org.spongepowered.common.util.SpongeCommonTranslationHelper.t;
+
+import com.google.common.base.Optional;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+
+import org.spongepowered.api.text.Texts;
+import org.spongepowered.api.util.command.CommandException;
+import org.spongepowered.api.util.command.CommandResult;
+import org.spongepowered.api.util.command.CommandSource;
+import org.spongepowered.api.util.command.args.CommandContext;
+import org.spongepowered.api.util.command.spec.CommandExecutor;
+import org.spongepowered.api.util.command.spec.CommandSpec;
+import org.spongepowered.api.world.World;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.event.EventTimings;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.interfaces.IMixinWorld;
+import org.spongepowered.common.world.gen.PregenerationTask;
+import org.spongepowered.common.world.gen.WorldPregenerator;
+import org.spongepowered.common.world.storage.ChunkIOCounters;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code /sponge} command used to inspect and control the implementation.
+ */
+public final class SpongeCommand {
+
+    private static final int REPORT_LIMIT = 10;
+
+    private SpongeCommand() {
+    }
+
+    public static CommandSpec getCommand() {
+        return CommandSpec.builder()
+                .description(t("General Sponge commands"))
+                .permission("sponge.command")
+                .child(CommandSpec.builder()
+                        .description(t("Inspect where the server spends its time"))
+                        .permission("sponge.command.timings")
+                        .child(getEventTimingsCommand(), "events")
+                        .child(getChunkIOCommand(), "chunkio")
+                        .child(getEntityActivationCommand(), "entities")
+                        .build(), "timings")
+                .child(getPregenCommand(), "pregen")
+                .build();
+    }
+
+    private static CommandSpec getEventTimingsCommand() {
+        return CommandSpec.builder()
+                .description(t("Show the event handler timings report"))
+                .executor(new CommandExecutor() {
+                    @Override
+                    public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                        List<String> report = getEventTimings().createReport(REPORT_LIMIT);
+                        for (String line : report) {
+                            src.sendMessage(Texts.of(line));
+                        }
+                        return CommandResult.success();
+                    }
+                })
+                .child(CommandSpec.builder()
+                        .description(t("Start recording event handler timings"))
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                getEventTimings().setEnabled(true);
+                                src.sendMessage(t("Event timings enabled"));
+                                return CommandResult.success();
+                            }
+                        }).build(), "on")
+                .child(CommandSpec.builder()
+                        .description(t("Stop recording event handler timings"))
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                getEventTimings().setEnabled(false);
+                                src.sendMessage(t("Event timings disabled"));
+                                return CommandResult.success();
+                            }
+                        }).build(), "off")
+                .child(CommandSpec.builder()
+                        .description(t("Reset the recorded event handler timings"))
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                getEventTimings().reset();
+                                src.sendMessage(t("Event timings reset"));
+                                return CommandResult.success();
+                            }
+                        }).build(), "reset")
+                .build();
+    }
+
+    private static CommandSpec getChunkIOCommand() {
+        return CommandSpec.builder()
+                .description(t("Show the chunk I/O counters"))
+                .executor(new CommandExecutor() {
+                    @Override
+                    public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                        ChunkIOCounters counters = ChunkIOCounters.getInstance();
+                        src.sendMessage(Texts.of("Reads: " + counters.getReads() + ", average "
+                                + average(counters.getReadNanos(), counters.getReads()) + " us"));
+                        src.sendMessage(Texts.of("Writes: " + counters.getWrites() + ", average "
+                                + average(counters.getWriteNanos(), counters.getWrites()) + " us"));
+                        src.sendMessage(Texts.of("Bytes written: " + counters.getBytesWritten()));
+                        int queued = 0;
+                        for (World world : Sponge.getGame().getServer().getWorlds()) {
+                            IChunkLoader loader = ((IMixinChunkProviderServer) ((WorldServer) world).theChunkProviderServer).getChunkLoader();
+                            if (loader instanceof IMixinAnvilChunkLoader) {
+                                queued += ((IMixinAnvilChunkLoader) loader).getPendingChunkCount();
+                            }
+                        }
+                        src.sendMessage(Texts.of("Queued chunks: " + queued));
+                        return CommandResult.success();
+                    }
+                })
+                .build();
+    }
+
+    private static CommandSpec getEntityActivationCommand() {
+        return CommandSpec.builder()
+                .description(t("Show the active and inactive entities of each world"))
+                .executor(new CommandExecutor() {
+                    @Override
+                    public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                        for (World world : Sponge.getGame().getServer().getWorlds()) {
+                            IMixinWorld mixinWorld = (IMixinWorld) world;
+                            src.sendMessage(Texts.of(world.getName() + ": " + mixinWorld.getActiveEntityCount() + " active, "
+                                    + mixinWorld.getInactiveEntityCount() + " inactive"));
+                        }
+                        return CommandResult.success();
+                    }
+                })
+                .build();
+    }
+
+    private static CommandSpec getPregenCommand() {
+        return CommandSpec.builder()
+                .description(t("Pre-generate the chunks of a world"))
+                .permission("sponge.command.pregen")
+                .child(CommandSpec.builder()
+                        .description(t("Start generating the chunks within a radius around the spawn of a world"))
+                        .permission("sponge.command.pregen.start")
+                        .arguments(string(t("world")), integer(t("radius")), optional(string(t("shape"))))
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                WorldServer world = getWorld(args);
+                                int radius = args.<Integer>getOne("radius").get();
+                                if (radius < 0) {
+                                    throw new CommandException(t("The radius must not be negative"));
+                                }
+                                PregenerationTask.Shape shape = PregenerationTask.Shape.SQUARE;
+                                Optional<String> shapeName = args.getOne("shape");
+                                if (shapeName.isPresent()) {
+                                    try {
+                                        shape = PregenerationTask.Shape.valueOf(shapeName.get().toUpperCase(Locale.ENGLISH));
+                                    } catch (IllegalArgumentException e) {
+                                        throw new CommandException(t("Unknown shape %s, use square or circle", shapeName.get()));
+                                    }
+                                }
+                                BlockPos spawn = world.getSpawnPoint();
+                                WorldPregenerator.getInstance().start(world, spawn.getX() >> 4, spawn.getZ() >> 4, radius, shape);
+                                src.sendMessage(t("Started pre-generating %s", world.getWorldInfo().getWorldName()));
+                                return CommandResult.success();
+                            }
+                        }).build(), "start")
+                .child(CommandSpec.builder()
+                        .description(t("Stop generating the chunks of a world"))
+                        .permission("sponge.command.pregen.stop")
+                        .arguments(string(t("world")))
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                WorldServer world = getWorld(args);
+                                if (!WorldPregenerator.getInstance().stop(world)) {
+                                    throw new CommandException(t("%s is not being pre-generated", world.getWorldInfo().getWorldName()));
+                                }
+                                src.sendMessage(t("Stopped pre-generating %s", world.getWorldInfo().getWorldName()));
+                                return CommandResult.success();
+                            }
+                        }).build(), "stop")
+                .child(CommandSpec.builder()
+                        .description(t("Show the progress of the pre-generation of each world"))
+                        .permission("sponge.command.pregen.status")
+                        .executor(new CommandExecutor() {
+                            @Override
+                            public CommandResult execute(CommandSource src, CommandContext args) throws CommandException {
+                                for (World world : Sponge.getGame().getServer().getWorlds()) {
+                                    Optional<PregenerationTask> task = WorldPregenerator.getInstance().getTask((WorldServer) world);
+                                    if (task.isPresent()) {
+                                        src.sendMessage(Texts.of(world.getName() + ": " + (int) (task.get().getProgress() * 100) + "%, "
+                                                + task.get().getGenerated() + " chunks generated"));
+                                    }
+                                }
+                                return CommandResult.success();
+                            }
+                        }).build(), "status")
+                .build();
+    }
+
+    private static WorldServer getWorld(CommandContext args) throws CommandException {
+        String name = args.<String>getOne("world").get();
+        Optional<World> world = Sponge.getGame().getServer().getWorld(name);
+        if (!world.isPresent()) {
+            throw new CommandException(t("Unknown world %s", name));
+        }
+        return (WorldServer) world.get();
+    }
+
+    private static long average(long nanos, long count) {
+        return count == 0 ? 0 : nanos / count / 1000;
+    }
+
+    private static EventTimings getEventTimings() {
+        return Sponge.getSpongeEventManager().getTimings();
+    }
+
+}
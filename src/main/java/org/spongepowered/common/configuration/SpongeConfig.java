@@ -39,6 +39,7 @@
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("unused")
 public class SpongeConfig<T extends SpongeConfig.ConfigBase> {
@@ -68,6 +69,11 @@ public enum Type {
     public static final String ENTITY_MAX_SPEED = "max-speed";
     public static final String ENTITY_COLLISION_WARN_SIZE = "collision-warn-size";
     public static final String ENTITY_COUNT_WARN_SIZE = "count-warn-size";
+    public static final String ENTITY_CHUNK_MONSTER_LIMIT = "chunk-monster-limit";
+    public static final String ENTITY_CHUNK_CREATURE_LIMIT = "chunk-creature-limit";
+    public static final String ENTITY_CHUNK_AQUATIC_LIMIT = "chunk-aquatic-limit";
+    public static final String ENTITY_CHUNK_AMBIENT_LIMIT = "chunk-ambient-limit";
+    public static final String ENTITY_CHUNK_ITEM_LIMIT = "chunk-item-limit";
     public static final String ENTITY_ITEM_DESPAWN_RATE = "item-despawn-rate";
     public static final String ENTITY_ACTIVATION_RANGE_CREATURE = "creature-activation-range";
     public static final String ENTITY_ACTIVATION_RANGE_MONSTER = "monster-activation-range";
@@ -76,6 +82,13 @@ public enum Type {
     public static final String ENTITY_ACTIVATION_RANGE_MISC = "misc-activation-range";
     public static final String ENTITY_HUMAN_PLAYER_LIST_REMOVE_DELAY = "human-player-list-remove-delay";
 
+    // EVENT
+    public static final String EVENT_ASYNC_QUEUE_SIZE = "async-queue-size";
+    public static final String EVENT_ASYNC_THREADS = "async-threads";
+    public static final String EVENT_GENERATED_DISPATCHERS = "generated-dispatchers";
+    public static final String EVENT_TIMINGS = "timings";
+    public static final String EVENT_TIMINGS_SAMPLE_INTERVAL = "timings-sample-interval";
+
     // GENERAL
     public static final String GENERAL_DISABLE_WARNINGS = "disable-warnings";
     public static final String GENERAL_CHUNK_LOAD_OVERRIDE = "chunk-load-override";
@@ -93,9 +106,24 @@ public enum Type {
     // MODULES
     public static final String MODULE_ENTITY_ACTIVATION_RANGE = "entity-activation-range";
 
+    // SCHEDULER
+    public static final String SCHEDULER_ASYNC_THREADS = "async-threads";
+    public static final String SCHEDULER_ASYNC_QUEUE_SIZE = "async-queue-size";
+    public static final String SCHEDULER_REJECTION_POLICY = "rejection-policy";
+    public static final String SCHEDULER_PLUGIN_THREADS = "plugin-threads";
+    public static final String SCHEDULER_PLUGIN_QUEUE_SIZE = "plugin-queue-size";
+    public static final String SCHEDULER_TICK_BUDGET = "tick-budget";
+
     // WORLD
     public static final String WORLD_INFINITE_WATER_SOURCE = "infinite-water-source";
     public static final String WORLD_FLOWING_LAVA_DECAY = "flowing-lava-decay";
+    public static final String WORLD_INCREMENTAL_SAVE = "incremental-save";
+    public static final String WORLD_SAVE_TICK_BUDGET = "save-tick-budget";
+    public static final String WORLD_SAVE_CHUNKS_PER_TICK = "save-chunks-per-tick";
+    public static final String WORLD_GENERATION_THREADS = "generation-threads";
+    public static final String WORLD_PREGEN_TICK_BUDGET = "pregen-tick-budget";
+    public static final String WORLD_PREGEN_MAX_LOADED_CHUNKS = "pregen-max-loaded-chunks";
+    public static final String WORLD_ASYNC_LOAD_TICK_BUDGET = "async-load-tick-budget";
 
     private static final String HEADER = "1.0\n"
             + "\n"
@@ -105,6 +133,8 @@ public enum Type {
             + "# IRC: #sponge @ irc.esper.net ( http://webchat.esper.net/?channel=sponge )\n"
             + "# Forums: https://forums.spongepowered.org/\n";
 
+    private static final AtomicInteger version = new AtomicInteger();
+
     private Type type;
     private HoconConfigurationLoader loader;
     private CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root(ConfigurationOptions.defaults()
@@ -152,6 +182,26 @@ public T getConfig() {
         return this.configBase;
     }
 
+    /**
+     * Gets the version of the loaded configs, which changes whenever any
+     * config is saved or reloaded.
+     *
+     * <p>Resolved {@link SpongeConfigSnapshot}s are compared against this to
+     * know when they have to be taken again.</p>
+     *
+     * @return The current version
+     */
+    public static int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Marks all {@link SpongeConfigSnapshot}s as outdated.
+     */
+    public static void invalidateSnapshots() {
+        version.incrementAndGet();
+    }
+
     public void save() {
         try {
             this.configMapper.serialize(this.root.getNode(this.modId));
@@ -161,6 +211,7 @@ public void save() {
         } catch (ObjectMappingException e) {
             LogManager.getLogger().error(ExceptionUtils.getStackTrace(e));
         }
+        invalidateSnapshots();
     }
 
     public void reload() {
@@ -173,6 +224,7 @@ public void reload() {
         } catch (ObjectMappingException e) {
             LogManager.getLogger().error(ExceptionUtils.getStackTrace(e));
         }
+        invalidateSnapshots();
     }
 
     public CommentedConfigurationNode getRootNode() {
@@ -210,6 +262,12 @@ public static class GlobalConfig extends ConfigBase {
         @Setting(value = "modules")
         private ModuleCategory mixins = new ModuleCategory();
 
+        @Setting
+        private EventCategory event = new EventCategory();
+
+        @Setting
+        private SchedulerCategory scheduler = new SchedulerCategory();
+
         public SqlCategory getSql() {
             return this.sql;
         }
@@ -221,6 +279,14 @@ public CommandsCategory getCommands() {
         public ModuleCategory getModules() {
             return this.mixins;
         }
+
+        public EventCategory getEvent() {
+            return this.event;
+        }
+
+        public SchedulerCategory getScheduler() {
+            return this.scheduler;
+        }
     }
 
     public static class DimensionConfig extends ConfigBase {
@@ -357,6 +423,129 @@ public void setDumpThreadsOnWarn(boolean dumpThreadsOnWarn) {
         }
     }
 
+    @ConfigSerializable
+    public static class EventCategory extends Category {
+
+        @Setting(value = EVENT_ASYNC_THREADS, comment = "The number of threads that call handlers of events posted on the asynchronous event bus")
+        private int asyncThreads = 2;
+        @Setting(value = EVENT_ASYNC_QUEUE_SIZE,
+                comment = "The maximum number of events waiting for the asynchronous event bus. Events posted while it is full are dropped")
+        private int asyncQueueSize = 1024;
+        @Setting(value = EVENT_GENERATED_DISPATCHERS,
+                comment = "Generate a class per event type that calls its handlers directly instead of iterating a handler list")
+        private boolean generatedDispatchers = true;
+        @Setting(value = EVENT_TIMINGS, comment = "Record how long event handlers take on startup, see /sponge timings events")
+        private boolean timings = false;
+        @Setting(value = EVENT_TIMINGS_SAMPLE_INTERVAL, comment = "Only time every n-th posted event while event timings are enabled")
+        private int timingsSampleInterval = 1;
+
+        public int getAsyncThreads() {
+            return this.asyncThreads;
+        }
+
+        public void setAsyncThreads(int asyncThreads) {
+            this.asyncThreads = asyncThreads;
+        }
+
+        public int getAsyncQueueSize() {
+            return this.asyncQueueSize;
+        }
+
+        public void setAsyncQueueSize(int asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+        }
+
+        public boolean useGeneratedDispatchers() {
+            return this.generatedDispatchers;
+        }
+
+        public void setGeneratedDispatchers(boolean generatedDispatchers) {
+            this.generatedDispatchers = generatedDispatchers;
+        }
+
+        public boolean useTimings() {
+            return this.timings;
+        }
+
+        public void setTimings(boolean timings) {
+            this.timings = timings;
+        }
+
+        public int getTimingsSampleInterval() {
+            return this.timingsSampleInterval;
+        }
+
+        public void setTimingsSampleInterval(int timingsSampleInterval) {
+            this.timingsSampleInterval = timingsSampleInterval;
+        }
+    }
+
+    @ConfigSerializable
+    public static class SchedulerCategory extends Category {
+
+        @Setting(value = SCHEDULER_ASYNC_THREADS,
+                comment = "The number of threads shared by asynchronous tasks, 0 uses twice the number of processors")
+        private int asyncThreads = 0;
+        @Setting(value = SCHEDULER_ASYNC_QUEUE_SIZE, comment = "The maximum number of asynchronous tasks waiting for a shared thread")
+        private int asyncQueueSize = 10000;
+        @Setting(value = SCHEDULER_REJECTION_POLICY, comment = "What to do with an asynchronous task when the queue of its pool is full:\n"
+                + "discard (drop it, counted and logged), discard-oldest (drop the longest waiting task instead)\n"
+                + "or caller-runs (run it on the scheduler thread, which delays all other asynchronous tasks)")
+        private String rejectionPolicy = "discard";
+        @Setting(value = SCHEDULER_PLUGIN_THREADS,
+                comment = "A mapping from plugin id to the number of threads of a pool only used by the asynchronous tasks of that plugin")
+        private Map<String, Integer> pluginThreads = new HashMap<String, Integer>();
+        @Setting(value = SCHEDULER_PLUGIN_QUEUE_SIZE, comment = "The maximum number of asynchronous tasks waiting for a thread of a plugin pool")
+        private int pluginQueueSize = 1000;
+        @Setting(value = SCHEDULER_TICK_BUDGET, comment = "The milliseconds synchronous tasks may take each tick before the remaining\n"
+                + "deferrable tasks are run on the following ticks, 0 for no limit")
+        private int tickBudget = 0;
+
+        public int getAsyncThreads() {
+            return this.asyncThreads;
+        }
+
+        public void setAsyncThreads(int asyncThreads) {
+            this.asyncThreads = asyncThreads;
+        }
+
+        public int getAsyncQueueSize() {
+            return this.asyncQueueSize;
+        }
+
+        public void setAsyncQueueSize(int asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+        }
+
+        public String getRejectionPolicy() {
+            return this.rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(String rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        public Map<String, Integer> getPluginThreads() {
+            return this.pluginThreads;
+        }
+
+        public int getPluginQueueSize() {
+            return this.pluginQueueSize;
+        }
+
+        public void setPluginQueueSize(int pluginQueueSize) {
+            this.pluginQueueSize = pluginQueueSize;
+        }
+
+        public int getTickBudget() {
+            return this.tickBudget;
+        }
+
+        public void setTickBudget(int tickBudget) {
+            this.tickBudget = tickBudget;
+        }
+    }
+
     @ConfigSerializable
     public static class GeneralCategory extends Category {
 
@@ -394,8 +583,23 @@ public static class EntityCategory extends Category {
                 comment = "Number of colliding entities in one spot before logging a warning. Set to 0 to disable")
         private int maxCollisionSize = 200;
         @Setting(value = ENTITY_COUNT_WARN_SIZE,
-                comment = "Number of entities in one dimension before logging a warning. Set to 0 to disable")
+                comment = "Number of entities in one chunk before logging a warning. Set to 0 to disable")
         private int maxCountWarnSize = 0;
+        @Setting(value = ENTITY_CHUNK_MONSTER_LIMIT,
+                comment = "Number of monsters in one chunk above which no more are spawned naturally. Set to 0 to disable")
+        private int chunkMonsterLimit = 0;
+        @Setting(value = ENTITY_CHUNK_CREATURE_LIMIT,
+                comment = "Number of creatures in one chunk above which no more are spawned naturally. Set to 0 to disable")
+        private int chunkCreatureLimit = 0;
+        @Setting(value = ENTITY_CHUNK_AQUATIC_LIMIT,
+                comment = "Number of aquatic mobs in one chunk above which no more are spawned naturally. Set to 0 to disable")
+        private int chunkAquaticLimit = 0;
+        @Setting(value = ENTITY_CHUNK_AMBIENT_LIMIT,
+                comment = "Number of ambient mobs in one chunk above which no more are spawned naturally. Set to 0 to disable")
+        private int chunkAmbientLimit = 0;
+        @Setting(value = ENTITY_CHUNK_ITEM_LIMIT,
+                comment = "Number of items in one chunk above which items are merged and the oldest removed. Set to 0 to disable")
+        private int chunkItemLimit = 0;
         @Setting(value = ENTITY_ITEM_DESPAWN_RATE, comment = "Controls the time in ticks for when an item despawns.")
         private int itemDespawnRate = 6000;
         @Setting(value = ENTITY_HUMAN_PLAYER_LIST_REMOVE_DELAY,
@@ -434,6 +638,46 @@ public void setMaxCountWarnSize(int maxCountWarnSize) {
             this.maxCountWarnSize = maxCountWarnSize;
         }
 
+        public int getChunkMonsterLimit() {
+            return this.chunkMonsterLimit;
+        }
+
+        public void setChunkMonsterLimit(int chunkMonsterLimit) {
+            this.chunkMonsterLimit = chunkMonsterLimit;
+        }
+
+        public int getChunkCreatureLimit() {
+            return this.chunkCreatureLimit;
+        }
+
+        public void setChunkCreatureLimit(int chunkCreatureLimit) {
+            this.chunkCreatureLimit = chunkCreatureLimit;
+        }
+
+        public int getChunkAquaticLimit() {
+            return this.chunkAquaticLimit;
+        }
+
+        public void setChunkAquaticLimit(int chunkAquaticLimit) {
+            this.chunkAquaticLimit = chunkAquaticLimit;
+        }
+
+        public int getChunkAmbientLimit() {
+            return this.chunkAmbientLimit;
+        }
+
+        public void setChunkAmbientLimit(int chunkAmbientLimit) {
+            this.chunkAmbientLimit = chunkAmbientLimit;
+        }
+
+        public int getChunkItemLimit() {
+            return this.chunkItemLimit;
+        }
+
+        public void setChunkItemLimit(int chunkItemLimit) {
+            this.chunkItemLimit = chunkItemLimit;
+        }
+
         public int getItemDespawnRate() {
             return this.itemDespawnRate;
         }
@@ -613,6 +857,25 @@ public static class WorldCategory extends Category {
         private boolean infiniteWaterSource = false;
         @Setting(value = WORLD_FLOWING_LAVA_DECAY, comment = "Lava behaves like vanilla water when source block is removed")
         private boolean flowingLavaDecay = false;
+        @Setting(value = WORLD_INCREMENTAL_SAVE, comment = "Spread the chunk saving of autosaves over several ticks instead of saving\n"
+                + "all chunks at once")
+        private boolean incrementalSave = false;
+        @Setting(value = WORLD_SAVE_TICK_BUDGET, comment = "The milliseconds incremental saving may take each tick")
+        private int saveTickBudget = 5;
+        @Setting(value = WORLD_SAVE_CHUNKS_PER_TICK, comment = "The maximum number of chunks saved each tick by incremental saving")
+        private int saveChunksPerTick = 64;
+        @Setting(value = WORLD_GENERATION_THREADS, comment = "The number of threads that run the generator populators of chunks generated\n"
+                + "in batches, such as by asynchronous chunk loads. 0 runs them on the main thread.\n"
+                + "Generator populators must be thread-safe if this is used. Only read from the global config")
+        private int generationThreads = 0;
+        @Setting(value = WORLD_PREGEN_TICK_BUDGET, comment = "The milliseconds world pre-generation may take each tick")
+        private int pregenTickBudget = 20;
+        @Setting(value = WORLD_PREGEN_MAX_LOADED_CHUNKS, comment = "The maximum number of chunks world pre-generation keeps loaded. Chunks\n"
+                + "over this limit are saved and unloaded right away")
+        private int pregenMaxLoadedChunks = 1024;
+        @Setting(value = WORLD_ASYNC_LOAD_TICK_BUDGET, comment = "The milliseconds that adding asynchronously loaded chunks to the world may\n"
+                + "take each tick")
+        private int asyncLoadTickBudget = 10;
 
         public boolean hasInfiniteWaterSource() {
             return this.infiniteWaterSource;
@@ -629,6 +892,62 @@ public boolean hasFlowingLavaDecay() {
         public void setFlowingLavaDecay(boolean flowingLavaDecay) {
             this.flowingLavaDecay = flowingLavaDecay;
         }
+
+        public boolean isIncrementalSave() {
+            return this.incrementalSave;
+        }
+
+        public void setIncrementalSave(boolean incrementalSave) {
+            this.incrementalSave = incrementalSave;
+        }
+
+        public int getSaveTickBudget() {
+            return this.saveTickBudget;
+        }
+
+        public void setSaveTickBudget(int saveTickBudget) {
+            this.saveTickBudget = saveTickBudget;
+        }
+
+        public int getSaveChunksPerTick() {
+            return this.saveChunksPerTick;
+        }
+
+        public void setSaveChunksPerTick(int saveChunksPerTick) {
+            this.saveChunksPerTick = saveChunksPerTick;
+        }
+
+        public int getGenerationThreads() {
+            return this.generationThreads;
+        }
+
+        public void setGenerationThreads(int generationThreads) {
+            this.generationThreads = generationThreads;
+        }
+
+        public int getPregenTickBudget() {
+            return this.pregenTickBudget;
+        }
+
+        public void setPregenTickBudget(int pregenTickBudget) {
+            this.pregenTickBudget = pregenTickBudget;
+        }
+
+        public int getPregenMaxLoadedChunks() {
+            return this.pregenMaxLoadedChunks;
+        }
+
+        public void setPregenMaxLoadedChunks(int pregenMaxLoadedChunks) {
+            this.pregenMaxLoadedChunks = pregenMaxLoadedChunks;
+        }
+
+        public int getAsyncLoadTickBudget() {
+            return this.asyncLoadTickBudget;
+        }
+
+        public void setAsyncLoadTickBudget(int asyncLoadTickBudget) {
+            this.asyncLoadTickBudget = asyncLoadTickBudget;
+        }
     }
 
     @ConfigSerializable
@@ -0,0 +1,234 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.configuration;
+
+/**
+ * The settings of a {@link SpongeConfig} that are read on hot paths, copied
+ * into primitive fields.
+ *
+ * <p>A snapshot is resolved once from the config that is active for a world
+ * and cached by the world until a config is saved or reloaded, so checks
+ * that run for every entity do not walk the config tiers and categories.</p>
+ */
+public final class SpongeConfigSnapshot {
+
+    private final int version;
+    private final String configName;
+    private final boolean chunkLoadLogging;
+    private final boolean chunkUnloadLogging;
+    private final boolean entitySpawnLogging;
+    private final boolean entityDespawnLogging;
+    private final boolean entityDeathLogging;
+    private final boolean logWithStackTraces;
+    private final boolean logEntityCollisionChecks;
+    private final boolean logEntitySpeedRemoval;
+    private final int maxBoundingBoxSize;
+    private final int maxSpeed;
+    private final int maxCollisionSize;
+    private final int maxCountWarnSize;
+    private final int chunkMonsterLimit;
+    private final int chunkCreatureLimit;
+    private final int chunkAquaticLimit;
+    private final int chunkAmbientLimit;
+    private final int chunkItemLimit;
+    private final int creatureActivationRange;
+    private final int monsterActivationRange;
+    private final int aquaticActivationRange;
+    private final int ambientActivationRange;
+    private final int miscActivationRange;
+    private final boolean incrementalSave;
+    private final int saveTickBudget;
+    private final int saveChunksPerTick;
+    private final int pregenTickBudget;
+    private final int pregenMaxLoadedChunks;
+    private final int asyncLoadTickBudget;
+
+    /**
+     * Creates a snapshot of the current settings of a config.
+     *
+     * @param config The config
+     * @param version The {@link SpongeConfig#getVersion() version} of the
+     *     configs read before the snapshot is taken
+     */
+    public SpongeConfigSnapshot(SpongeConfig<?> config, int version) {
+        this.version = version;
+        this.configName = config.getConfigName();
+
+        SpongeConfig.ConfigBase base = config.getConfig();
+        SpongeConfig.LoggingCategory logging = base.getLogging();
+        SpongeConfig.EntityCategory entity = base.getEntity();
+        SpongeConfig.EntityActivationRangeCategory activationRange = base.getEntityActivationRange();
+        SpongeConfig.WorldCategory world = base.getWorld();
+        this.chunkLoadLogging = logging.chunkLoadLogging();
+        this.chunkUnloadLogging = logging.chunkUnloadLogging();
+        this.entitySpawnLogging = logging.entitySpawnLogging();
+        this.entityDespawnLogging = logging.entityDespawnLogging();
+        this.entityDeathLogging = logging.entityDeathLogging();
+        this.logWithStackTraces = logging.logWithStackTraces();
+        this.logEntityCollisionChecks = logging.logEntityCollisionChecks();
+        this.logEntitySpeedRemoval = logging.logEntitySpeedRemoval();
+        this.maxBoundingBoxSize = entity.getMaxBoundingBoxSize();
+        this.maxSpeed = entity.getMaxSpeed();
+        this.maxCollisionSize = entity.getMaxCollisionSize();
+        this.maxCountWarnSize = entity.getMaxCountWarnSize();
+        this.chunkMonsterLimit = entity.getChunkMonsterLimit();
+        this.chunkCreatureLimit = entity.getChunkCreatureLimit();
+        this.chunkAquaticLimit = entity.getChunkAquaticLimit();
+        this.chunkAmbientLimit = entity.getChunkAmbientLimit();
+        this.chunkItemLimit = entity.getChunkItemLimit();
+        this.creatureActivationRange = activationRange.getCreatureActivationRange();
+        this.monsterActivationRange = activationRange.getMonsterActivationRange();
+        this.aquaticActivationRange = activationRange.getAquaticActivationRange();
+        this.ambientActivationRange = activationRange.getAmbientActivationRange();
+        this.miscActivationRange = activationRange.getMiscActivationRange();
+        this.incrementalSave = world.isIncrementalSave();
+        this.saveTickBudget = world.getSaveTickBudget();
+        this.saveChunksPerTick = world.getSaveChunksPerTick();
+        this.pregenTickBudget = world.getPregenTickBudget();
+        this.pregenMaxLoadedChunks = world.getPregenMaxLoadedChunks();
+        this.asyncLoadTickBudget = world.getAsyncLoadTickBudget();
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    public String getConfigName() {
+        return this.configName;
+    }
+
+    public boolean chunkLoadLogging() {
+        return this.chunkLoadLogging;
+    }
+
+    public boolean chunkUnloadLogging() {
+        return this.chunkUnloadLogging;
+    }
+
+    public boolean entitySpawnLogging() {
+        return this.entitySpawnLogging;
+    }
+
+    public boolean entityDespawnLogging() {
+        return this.entityDespawnLogging;
+    }
+
+    public boolean entityDeathLogging() {
+        return this.entityDeathLogging;
+    }
+
+    public boolean logWithStackTraces() {
+        return this.logWithStackTraces;
+    }
+
+    public boolean logEntityCollisionChecks() {
+        return this.logEntityCollisionChecks;
+    }
+
+    public boolean logEntitySpeedRemoval() {
+        return this.logEntitySpeedRemoval;
+    }
+
+    public int getMaxBoundingBoxSize() {
+        return this.maxBoundingBoxSize;
+    }
+
+    public int getMaxSpeed() {
+        return this.maxSpeed;
+    }
+
+    public int getMaxCollisionSize() {
+        return this.maxCollisionSize;
+    }
+
+    public int getMaxCountWarnSize() {
+        return this.maxCountWarnSize;
+    }
+
+    public int getChunkMonsterLimit() {
+        return this.chunkMonsterLimit;
+    }
+
+    public int getChunkCreatureLimit() {
+        return this.chunkCreatureLimit;
+    }
+
+    public int getChunkAquaticLimit() {
+        return this.chunkAquaticLimit;
+    }
+
+    public int getChunkAmbientLimit() {
+        return this.chunkAmbientLimit;
+    }
+
+    public int getChunkItemLimit() {
+        return this.chunkItemLimit;
+    }
+
+    public int getCreatureActivationRange() {
+        return this.creatureActivationRange;
+    }
+
+    public int getMonsterActivationRange() {
+        return this.monsterActivationRange;
+    }
+
+    public int getAquaticActivationRange() {
+        return this.aquaticActivationRange;
+    }
+
+    public int getAmbientActivationRange() {
+        return this.ambientActivationRange;
+    }
+
+    public int getMiscActivationRange() {
+        return this.miscActivationRange;
+    }
+
+    public boolean isIncrementalSave() {
+        return this.incrementalSave;
+    }
+
+    public int getSaveTickBudget() {
+        return this.saveTickBudget;
+    }
+
+    public int getSaveChunksPerTick() {
+        return this.saveChunksPerTick;
+    }
+
+    public int getPregenTickBudget() {
+        return this.pregenTickBudget;
+    }
+
+    public int getPregenMaxLoadedChunks() {
+        return this.pregenMaxLoadedChunks;
+    }
+
+    public int getAsyncLoadTickBudget() {
+        return this.asyncLoadTickBudget;
+    }
+
+}
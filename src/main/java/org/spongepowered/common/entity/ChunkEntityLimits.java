@@ -0,0 +1,213 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ClassInheritanceMultiMap;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
+import org.spongepowered.common.interfaces.IMixinChunk;
+import org.spongepowered.common.interfaces.IMixinEntity;
+import org.spongepowered.common.util.SpongeHooks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Limits the number of entities in a chunk.
+ *
+ * <p>Chunks count their entities by category. Natural spawns are denied in
+ * chunks that reached the limit of the category of the spawned entity, and
+ * chunks with too many items get their items merged and the oldest ones
+ * removed. Chunks with more entities than the count warn size are reported,
+ * at most once every 30 seconds per chunk.</p>
+ */
+public final class ChunkEntityLimits {
+
+    /**
+     * The category of items. The other categories are the activation types
+     * of {@link EntityActivationRange}.
+     */
+    public static final int CATEGORY_ITEM = 0;
+    public static final int CATEGORY_COUNT = 6;
+
+    private static final int CHECK_INTERVAL = 20;
+    private static final long WARNING_INTERVAL_MILLIS = 30000;
+
+    private static final Comparator<EntityItem> OLDEST_FIRST = new Comparator<EntityItem>() {
+
+        @Override
+        public int compare(EntityItem item1, EntityItem item2) {
+            return item2.ticksExisted - item1.ticksExisted;
+        }
+    };
+
+    private ChunkEntityLimits() {
+    }
+
+    public static int getCategory(Entity entity) {
+        if (entity instanceof EntityItem) {
+            return CATEGORY_ITEM;
+        }
+        return ((IMixinEntity) entity).getActivationType();
+    }
+
+    /**
+     * Gets whether a naturally spawned entity may be added to the chunk it is
+     * in.
+     *
+     * @param world The world
+     * @param entity The spawned entity
+     * @return Whether the entity may spawn
+     */
+    public static boolean canSpawn(World world, Entity entity) {
+        int category = getCategory(entity);
+        int limit = getSpawnLimit(SpongeHooks.getConfigSnapshot(world), category);
+        if (limit <= 0) {
+            return true;
+        }
+        Chunk chunk = world.getChunkFromChunkCoords(MathHelper.floor_double(entity.posX) >> 4, MathHelper.floor_double(entity.posZ) >> 4);
+        return ((IMixinChunk) chunk).getEntityCount(category) < limit;
+    }
+
+    private static int getSpawnLimit(SpongeConfigSnapshot config, int category) {
+        switch (category) {
+            case EntityActivationRange.ACTIVATION_TYPE_MONSTER:
+                return config.getChunkMonsterLimit();
+            case EntityActivationRange.ACTIVATION_TYPE_CREATURE:
+                return config.getChunkCreatureLimit();
+            case EntityActivationRange.ACTIVATION_TYPE_AQUATIC:
+                return config.getChunkAquaticLimit();
+            case EntityActivationRange.ACTIVATION_TYPE_AMBIENT:
+                return config.getChunkAmbientLimit();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Enforces the item limit and reports crowded chunks. Called every tick,
+     * checks the loaded chunks once every {@link #CHECK_INTERVAL} ticks.
+     *
+     * @param world The world
+     */
+    public static void checkChunks(WorldServer world) {
+        if (world.getTotalWorldTime() % CHECK_INTERVAL != 0) {
+            return;
+        }
+        SpongeConfigSnapshot config = SpongeHooks.getConfigSnapshot(world);
+        int itemLimit = config.getChunkItemLimit();
+        int warnSize = config.getMaxCountWarnSize();
+        if (itemLimit <= 0 && warnSize <= 0) {
+            return;
+        }
+
+        for (Object object : world.theChunkProviderServer.loadedChunks) {
+            Chunk chunk = (Chunk) object;
+            IMixinChunk spongeChunk = (IMixinChunk) chunk;
+            if (itemLimit > 0 && spongeChunk.getEntityCount(CATEGORY_ITEM) > itemLimit) {
+                limitItems(chunk, itemLimit);
+            }
+            if (warnSize > 0 && spongeChunk.getEntityCount() >= warnSize) {
+                warnEntityCount(world, chunk, warnSize);
+            }
+        }
+    }
+
+    private static void limitItems(Chunk chunk, int limit) {
+        Map<Item, List<EntityItem>> itemsByType = new HashMap<Item, List<EntityItem>>();
+        List<EntityItem> remaining = new ArrayList<EntityItem>();
+        for (ClassInheritanceMultiMap entities : chunk.getEntityLists()) {
+            for (Object object : entities.getByClass(EntityItem.class)) {
+                EntityItem item = (EntityItem) object;
+                if (item.isDead) {
+                    continue;
+                }
+                ItemStack stack = item.getEntityItem();
+                List<EntityItem> items = itemsByType.get(stack.getItem());
+                if (items == null) {
+                    items = new ArrayList<EntityItem>();
+                    itemsByType.put(stack.getItem(), items);
+                }
+                if (!mergeInto(items, item)) {
+                    items.add(item);
+                    remaining.add(item);
+                }
+            }
+        }
+
+        if (remaining.size() > limit) {
+            Collections.sort(remaining, OLDEST_FIRST);
+            for (int i = 0; i < remaining.size() - limit; i++) {
+                remaining.get(i).setDead();
+            }
+        }
+    }
+
+    private static boolean mergeInto(List<EntityItem> items, EntityItem item) {
+        ItemStack stack = item.getEntityItem();
+        for (EntityItem other : items) {
+            ItemStack otherStack = other.getEntityItem();
+            if (otherStack.getMetadata() == stack.getMetadata()
+                    && otherStack.stackSize + stack.stackSize <= otherStack.getMaxStackSize()
+                    && ItemStack.areItemStackTagsEqual(otherStack, stack)) {
+                otherStack.stackSize += stack.stackSize;
+                other.setEntityItemStack(otherStack);
+                item.setDead();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void warnEntityCount(World world, Chunk chunk, int warnSize) {
+        IMixinChunk spongeChunk = (IMixinChunk) chunk;
+        long now = System.currentTimeMillis();
+        if (now - spongeChunk.getLastEntityCountWarning() < WARNING_INTERVAL_MILLIS) {
+            return;
+        }
+        spongeChunk.setLastEntityCountWarning(now);
+        SpongeHooks.logWarning("Chunk [{0}, {1}] in dimension {2} has {3} entities, over the warning size of {4} "
+                + "(items: {5}, monsters: {6}, creatures: {7}, aquatic: {8}, ambient: {9}, misc: {10})",
+                chunk.xPosition, chunk.zPosition, world.provider.getDimensionId(), spongeChunk.getEntityCount(), warnSize,
+                spongeChunk.getEntityCount(CATEGORY_ITEM),
+                spongeChunk.getEntityCount(EntityActivationRange.ACTIVATION_TYPE_MONSTER),
+                spongeChunk.getEntityCount(EntityActivationRange.ACTIVATION_TYPE_CREATURE),
+                spongeChunk.getEntityCount(EntityActivationRange.ACTIVATION_TYPE_AQUATIC),
+                spongeChunk.getEntityCount(EntityActivationRange.ACTIVATION_TYPE_AMBIENT),
+                spongeChunk.getEntityCount(EntityActivationRange.ACTIVATION_TYPE_MISC));
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityCreature;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.IProjectile;
+import net.minecraft.entity.boss.EntityDragon;
+import net.minecraft.entity.boss.EntityDragonPart;
+import net.minecraft.entity.boss.EntityWither;
+import net.minecraft.entity.effect.EntityWeatherEffect;
+import net.minecraft.entity.item.EntityEnderCrystal;
+import net.minecraft.entity.item.EntityFallingBlock;
+import net.minecraft.entity.item.EntityFireworkRocket;
+import net.minecraft.entity.item.EntityTNTPrimed;
+import net.minecraft.entity.monster.IMob;
+import net.minecraft.entity.passive.EntityAmbientCreature;
+import net.minecraft.entity.passive.EntityAnimal;
+import net.minecraft.entity.passive.EntityWaterMob;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.projectile.EntityFireball;
+import net.minecraft.util.ClassInheritanceMultiMap;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
+import org.spongepowered.common.interfaces.IMixinEntity;
+import org.spongepowered.common.util.SpongeHooks;
+
+/**
+ * Skips the full update of entities that are far away from all players.
+ *
+ * <p>At the start of each entity update pass, every entity within the
+ * activation range of its category around a player is marked active for the
+ * tick. Entities that are not active only get an
+ * {@link IMixinEntity#inactiveTick() inactive tick}, unless they are
+ * {@link #checkEntityImmunities(Entity) immune}. Inactive entities still get
+ * a full update once every {@link #INACTIVE_UPDATE_INTERVAL} ticks.</p>
+ */
+public final class EntityActivationRange {
+
+    public static final byte ACTIVATION_TYPE_MONSTER = 1;
+    public static final byte ACTIVATION_TYPE_CREATURE = 2;
+    public static final byte ACTIVATION_TYPE_AQUATIC = 3;
+    public static final byte ACTIVATION_TYPE_AMBIENT = 4;
+    public static final byte ACTIVATION_TYPE_MISC = 5;
+
+    private static final int INACTIVE_UPDATE_INTERVAL = 20;
+
+    private EntityActivationRange() {
+    }
+
+    public static boolean isEnabled() {
+        return Sponge.getGlobalConfig().getConfig().getModules().usePluginEntityActivation();
+    }
+
+    /**
+     * Gets the activation type of an entity, which decides the range that
+     * applies to it.
+     *
+     * @param entity The entity
+     * @return The activation type
+     */
+    public static byte initializeEntityActivationType(Entity entity) {
+        if (entity instanceof EntityWaterMob) {
+            return ACTIVATION_TYPE_AQUATIC;
+        } else if (entity instanceof EntityAmbientCreature) {
+            return ACTIVATION_TYPE_AMBIENT;
+        } else if (entity instanceof IMob) {
+            return ACTIVATION_TYPE_MONSTER;
+        } else if (entity instanceof EntityCreature || entity instanceof EntityAnimal) {
+            return ACTIVATION_TYPE_CREATURE;
+        }
+        return ACTIVATION_TYPE_MISC;
+    }
+
+    /**
+     * Gets whether an entity is always active, regardless of its distance to
+     * players.
+     *
+     * @param entity The entity
+     * @param world The world of the entity
+     * @return Whether the entity is always active
+     */
+    public static boolean initializeEntityActivationState(Entity entity, World world) {
+        if (world.isRemote
+                || entity instanceof EntityPlayer
+                || entity instanceof IProjectile
+                || entity instanceof EntityFireball
+                || entity instanceof EntityDragon
+                || entity instanceof EntityDragonPart
+                || entity instanceof EntityWither
+                || entity instanceof EntityWeatherEffect
+                || entity instanceof EntityTNTPrimed
+                || entity instanceof EntityFallingBlock
+                || entity instanceof EntityEnderCrystal
+                || entity instanceof EntityFireworkRocket) {
+            return true;
+        }
+        return getActivationRange(getConfig(world), initializeEntityActivationType(entity)) <= 0;
+    }
+
+    /**
+     * Marks all entities within range of a player active for the current
+     * tick. Called once per tick before the entities of the world are
+     * updated.
+     *
+     * @param world The world
+     */
+    public static void activateEntities(World world) {
+        SpongeConfigSnapshot config = getConfig(world);
+        int maxRange = Math.max(config.getMiscActivationRange(), Math.max(config.getCreatureActivationRange(),
+                Math.max(config.getMonsterActivationRange(), Math.max(config.getAquaticActivationRange(), config.getAmbientActivationRange()))));
+        long currentTick = world.getTotalWorldTime();
+        IChunkProvider chunkProvider = world.getChunkProvider();
+
+        for (Object object : world.playerEntities) {
+            EntityPlayer player = (EntityPlayer) object;
+            ((IMixinEntity) player).setActivatedTick(currentTick);
+
+            int minChunkX = MathHelper.floor_double(player.posX - maxRange) >> 4;
+            int maxChunkX = MathHelper.floor_double(player.posX + maxRange) >> 4;
+            int minChunkZ = MathHelper.floor_double(player.posZ - maxRange) >> 4;
+            int maxChunkZ = MathHelper.floor_double(player.posZ + maxRange) >> 4;
+            for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+                for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                    if (chunkProvider.chunkExists(chunkX, chunkZ)) {
+                        activateChunkEntities(player, world.getChunkFromChunkCoords(chunkX, chunkZ), config, currentTick);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void activateChunkEntities(EntityPlayer player, Chunk chunk, SpongeConfigSnapshot config,
+            long currentTick) {
+        for (ClassInheritanceMultiMap entities : chunk.getEntityLists()) {
+            for (Object object : entities) {
+                Entity entity = (Entity) object;
+                IMixinEntity spongeEntity = (IMixinEntity) entity;
+                if (spongeEntity.getActivatedTick() >= currentTick) {
+                    continue;
+                }
+                if (spongeEntity.getDefaultActivationState()) {
+                    spongeEntity.setActivatedTick(currentTick);
+                    continue;
+                }
+                int range = getActivationRange(config, spongeEntity.getActivationType());
+                if (Math.abs(entity.posX - player.posX) <= range && Math.abs(entity.posZ - player.posZ) <= range) {
+                    spongeEntity.setActivatedTick(currentTick);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether an entity has to be fully updated even though it is out
+     * of range, because it is burning, riding or carrying another entity, or
+     * was recently damaged.
+     *
+     * @param entity The entity
+     * @return Whether the entity is immune to being inactive
+     */
+    public static boolean checkEntityImmunities(Entity entity) {
+        if (entity.fire > 0 || entity.ridingEntity != null || entity.riddenByEntity != null) {
+            return true;
+        }
+        if (entity instanceof EntityLivingBase) {
+            EntityLivingBase living = (EntityLivingBase) entity;
+            if (living.hurtTime > 0 || living.hurtResistantTime > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether an entity should be fully updated this tick.
+     *
+     * @param entity The entity
+     * @return Whether the entity is active
+     */
+    public static boolean checkIfActive(Entity entity) {
+        IMixinEntity spongeEntity = (IMixinEntity) entity;
+        if (spongeEntity.getDefaultActivationState()) {
+            return true;
+        }
+        long currentTick = entity.worldObj.getTotalWorldTime();
+        if (spongeEntity.getActivatedTick() >= currentTick || checkEntityImmunities(entity)) {
+            return true;
+        }
+        return (currentTick - spongeEntity.getActivatedTick() - 1) % INACTIVE_UPDATE_INTERVAL == 0;
+    }
+
+    private static SpongeConfigSnapshot getConfig(World world) {
+        return SpongeHooks.getConfigSnapshot(world);
+    }
+
+    private static int getActivationRange(SpongeConfigSnapshot config, byte activationType) {
+        switch (activationType) {
+            case ACTIVATION_TYPE_MONSTER:
+                return config.getMonsterActivationRange();
+            case ACTIVATION_TYPE_CREATURE:
+                return config.getCreatureActivationRange();
+            case ACTIVATION_TYPE_AQUATIC:
+                return config.getAquaticActivationRange();
+            case ACTIVATION_TYPE_AMBIENT:
+                return config.getAmbientActivationRange();
+            default:
+                return config.getMiscActivationRange();
+        }
+    }
+
+}
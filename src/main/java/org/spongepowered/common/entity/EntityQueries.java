@@ -0,0 +1,120 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3d;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import net.minecraft.util.AxisAlignedBB;
+import net.minecraft.world.World;
+import org.spongepowered.api.entity.Entity;
+
+import java.util.Collection;
+
+/**
+ * Spatial entity queries for worlds.
+ *
+ * <p>Chunks already index their entities by 16 block high section, and each
+ * section buckets its entities by class, so these queries only visit the
+ * sections that intersect the searched area and, within those, only the
+ * entities of the requested type. Queries never scan the loaded entity list
+ * of the world.</p>
+ */
+public final class EntityQueries {
+
+    private EntityQueries() {
+    }
+
+    /**
+     * Gets the entities of the given type whose bounding box intersects the
+     * given box.
+     *
+     * @param world The world
+     * @param box The box to search in
+     * @param type The type of the entities
+     * @param filter The filter the entities have to match, may be null
+     * @param <T> The type of the entities
+     * @return The matching entities
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T extends Entity> Collection<T> getEntities(World world, AxisAlignedBB box, Class<T> type, Predicate<? super T> filter) {
+        checkNotNull(box, "box");
+        checkNotNull(type, "type");
+        if (net.minecraft.entity.Entity.class.isAssignableFrom(type)) {
+            return (Collection<T>) world.getEntitiesWithinAABB((Class) type, box, (Predicate) filter);
+        }
+
+        // Sponge interfaces are not known to the per-class buckets of the
+        // chunks, so those are filtered here instead
+        Predicate<Object> predicate = Predicates.instanceOf(type);
+        if (filter != null) {
+            predicate = Predicates.and(predicate, (Predicate) filter);
+        }
+        return (Collection<T>) world.getEntitiesWithinAABB(net.minecraft.entity.Entity.class, box, predicate);
+    }
+
+    /**
+     * Gets the entities whose position is at most the given distance away
+     * from the given position.
+     *
+     * @param world The world
+     * @param position The center of the search
+     * @param radius The maximum distance
+     * @return The nearby entities
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Collection<Entity> getNearbyEntities(World world, Vector3d position, double radius) {
+        checkNotNull(position, "position");
+        checkArgument(radius >= 0, "radius must not be negative");
+        AxisAlignedBB box = new AxisAlignedBB(position.getX() - radius, position.getY() - radius, position.getZ() - radius,
+                position.getX() + radius, position.getY() + radius, position.getZ() + radius);
+        return (Collection<Entity>) (Collection) world.getEntitiesWithinAABB(net.minecraft.entity.Entity.class, box,
+                new WithinRadius(position, radius));
+    }
+
+    private static final class WithinRadius implements Predicate<net.minecraft.entity.Entity> {
+
+        private final double x;
+        private final double y;
+        private final double z;
+        private final double radiusSquared;
+
+        WithinRadius(Vector3d position, double radius) {
+            this.x = position.getX();
+            this.y = position.getY();
+            this.z = position.getZ();
+            this.radiusSquared = radius * radius;
+        }
+
+        @Override
+        public boolean apply(net.minecraft.entity.Entity entity) {
+            return entity.getDistanceSq(this.x, this.y, this.z) <= this.radiusSquared;
+        }
+    }
+
+}
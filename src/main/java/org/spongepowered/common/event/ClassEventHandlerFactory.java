@@ -26,29 +26,47 @@
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.objectweb.asm.Opcodes.AALOAD;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
 import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INSTANCEOF;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
 import static org.objectweb.asm.Opcodes.RETURN;
 import static org.objectweb.asm.Opcodes.V1_6;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
+import org.spongepowered.api.event.Cancellable;
 import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventHandler;
+import org.spongepowered.api.event.Subscribe;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-public final class ClassEventHandlerFactory implements AnnotatedEventHandler.Factory {
+public final class ClassEventHandlerFactory implements AnnotatedEventHandler.Factory, EventDispatcher.Factory {
 
     private final AtomicInteger id = new AtomicInteger();
     private final LocalClassLoader classLoader = new LocalClassLoader(getClass().getClassLoader());
@@ -63,6 +81,23 @@ public Class<? extends AnnotatedEventHandler> load(Method method) throws Excepti
                 }
             });
 
+    /**
+     * Dispatcher classes keyed by the shape of the handlers they call: the
+     * handler class (or {@link EventHandler} for handlers we can't call
+     * directly) and the ignoreCancelled flag of each handler. Re-baking a
+     * cache with the same kind of handlers reuses the generated class.
+     */
+    private final LoadingCache<List<Object>, Class<? extends EventDispatcher>> dispatcherCache = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .weakValues()
+            .build(new CacheLoader<List<Object>, Class<? extends EventDispatcher>>() {
+
+                @Override
+                public Class<? extends EventDispatcher> load(List<Object> shape) throws Exception {
+                    return createDispatcherClass(shape);
+                }
+            });
+
     private final String targetPackage;
 
     public ClassEventHandlerFactory(String targetPackage) {
@@ -71,6 +106,24 @@ public ClassEventHandlerFactory(String targetPackage) {
         this.targetPackage = targetPackage + '.';
     }
 
+    /**
+     * Checks whether the given handler method opted in to be called from the
+     * asynchronous event bus.
+     *
+     * @param method The handler method
+     * @return Whether the method is annotated with {@link AsyncSafe}
+     * @throws IllegalArgumentException If the method is annotated with
+     *         {@link AsyncSafe} but is not a {@link Subscribe} method
+     */
+    static boolean isAsyncSafe(Method method) {
+        if (!method.isAnnotationPresent(AsyncSafe.class)) {
+            return false;
+        }
+        checkArgument(method.isAnnotationPresent(Subscribe.class), "The method %s has @%s but no @%s", method, AsyncSafe.class.getSimpleName(),
+                Subscribe.class.getSimpleName());
+        return true;
+    }
+
     @Override
     public AnnotatedEventHandler create(Object handle, Method method) throws Exception {
         return this.cache.get(method)
@@ -129,6 +182,138 @@ private static byte[] generateClass(String name, Class<?> handle, Method method,
         return cw.toByteArray();
     }
 
+    @Override
+    public EventDispatcher create(RegisteredHandler<?>[] handlers) throws Exception {
+        return this.dispatcherCache.get(getShape(handlers))
+                .getConstructor(RegisteredHandler[].class)
+                .newInstance(new Object[] {handlers});
+    }
+
+    private List<Object> getShape(RegisteredHandler<?>[] handlers) {
+        ImmutableList.Builder<Object> shape = ImmutableList.builder();
+        for (RegisteredHandler<?> handler : handlers) {
+            Class<?> handlerClass = handler.getHandler().getClass();
+            // Only the handler classes we generated are guaranteed to be public and visible to our class loader
+            shape.add(handlerClass.getClassLoader() == this.classLoader ? handlerClass : EventHandler.class);
+            shape.add(handler.isIgnoreCancelled());
+        }
+        return shape.build();
+    }
+
+    private Class<? extends EventDispatcher> createDispatcherClass(List<Object> shape) {
+        String name = this.targetPackage + "EventDispatcher_" + this.id.incrementAndGet();
+        return this.classLoader.defineClass(name, generateDispatcher(name, shape));
+    }
+
+    private static final String BASE_DISPATCHER = Type.getInternalName(EventDispatcher.class);
+    private static final String REGISTERED_HANDLER = Type.getInternalName(RegisteredHandler.class);
+    private static final String HANDLER_ARRAY_DESCRIPTOR = Type.getDescriptor(RegisteredHandler[].class);
+    private static final String EVENT_HANDLER = Type.getInternalName(EventHandler.class);
+    private static final String CANCELLABLE = Type.getInternalName(Cancellable.class);
+
+    private static byte[] generateDispatcher(String name, List<Object> shape) {
+        name = name.replace('.', '/');
+        final int handlerCount = shape.size() / 2;
+
+        boolean checksCancelled = false;
+        for (int i = 0; i < handlerCount; i++) {
+            checksCancelled |= (Boolean) shape.get(i * 2 + 1);
+        }
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_DISPATCHER, null);
+
+        for (int i = 0; i < handlerCount; i++) {
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "handler" + i, Type.getDescriptor((Class<?>) shape.get(i * 2)), null, null).visitEnd();
+        }
+
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", '(' + HANDLER_ARRAY_DESCRIPTOR + ")V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_DISPATCHER, "<init>", '(' + HANDLER_ARRAY_DESCRIPTOR + ")V", false);
+            for (int i = 0; i < handlerCount; i++) {
+                Class<?> handlerClass = (Class<?>) shape.get(i * 2);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitLdcInsn(i);
+                mv.visitInsn(AALOAD);
+                mv.visitMethodInsn(INVOKEVIRTUAL, REGISTERED_HANDLER, "getHandler", "()" + Type.getDescriptor(EventHandler.class), false);
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(handlerClass));
+                mv.visitFieldInsn(PUTFIELD, name, "handler" + i, Type.getDescriptor(handlerClass));
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            // Locals: 0 = this, 1 = event, 2 = event instanceof Cancellable, 3 = caught exception
+            mv = cw.visitMethod(ACC_PUBLIC, "dispatch", HANDLE_METHOD_DESCRIPTOR, null, null);
+            mv.visitCode();
+
+            if (checksCancelled) {
+                // The event type never changes during dispatch, so check it once
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(INSTANCEOF, CANCELLABLE);
+                mv.visitVarInsn(ISTORE, 2);
+            }
+
+            for (int i = 0; i < handlerCount; i++) {
+                Class<?> handlerClass = (Class<?>) shape.get(i * 2);
+                boolean ignoreCancelled = (Boolean) shape.get(i * 2 + 1);
+
+                Label start = new Label();
+                Label end = new Label();
+                Label error = new Label();
+                Label next = new Label();
+                mv.visitTryCatchBlock(start, end, error, "java/lang/Throwable");
+
+                if (ignoreCancelled) {
+                    mv.visitVarInsn(ILOAD, 2);
+                    mv.visitJumpInsn(IFEQ, start);
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitMethodInsn(INVOKESTATIC, BASE_DISPATCHER, "isCancelled", "(" + Type.getDescriptor(Event.class) + ")Z", false);
+                    mv.visitJumpInsn(IFNE, next);
+                }
+
+                mv.visitLabel(start);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handler" + i, Type.getDescriptor(handlerClass));
+                mv.visitVarInsn(ALOAD, 1);
+                if (handlerClass == EventHandler.class) {
+                    mv.visitMethodInsn(INVOKEINTERFACE, EVENT_HANDLER, "handle", HANDLE_METHOD_DESCRIPTOR, true);
+                } else {
+                    mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(handlerClass), "handle", HANDLE_METHOD_DESCRIPTOR, false);
+                }
+                mv.visitLabel(end);
+                mv.visitJumpInsn(GOTO, next);
+
+                mv.visitLabel(error);
+                mv.visitVarInsn(ASTORE, 3);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handlers", HANDLER_ARRAY_DESCRIPTOR);
+                mv.visitLdcInsn(i);
+                mv.visitInsn(AALOAD);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_DISPATCHER, "handleError",
+                        "(" + Type.getDescriptor(Event.class) + Type.getDescriptor(RegisteredHandler.class) + "Ljava/lang/Throwable;)V", false);
+
+                mv.visitLabel(next);
+            }
+
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
     private static class LocalClassLoader extends ClassLoader {
 
         private LocalClassLoader(ClassLoader parent) {
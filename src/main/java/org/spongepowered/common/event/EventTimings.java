@@ -0,0 +1,283 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.Sponge;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+/**
+ * Records how many times and for how long event handlers run, per handler,
+ * per plugin and per event type.
+ *
+ * <p>While disabled, the only cost on the posting path is the volatile read
+ * in {@link #isEnabled()}. While enabled, only every
+ * {@link #getSampleInterval() n-th} post is timed.</p>
+ */
+public final class EventTimings implements EventTimingsMXBean {
+
+    public static final String OBJECT_NAME = "org.spongepowered:type=EventTimings";
+
+    private final SpongeEventManager eventManager;
+    private final ConcurrentMap<Class<?>, Timing> eventTypeTimings = new ConcurrentHashMap<Class<?>, Timing>();
+
+    private volatile boolean enabled;
+    private volatile int sampleInterval = 1;
+    // Not synchronized, a lost update only shifts the next sample
+    private int sampleCounter;
+
+    EventTimings(SpongeEventManager eventManager) {
+        this.eventManager = eventManager;
+    }
+
+    void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            Sponge.getLogger().warn("Failed to register the event timings MBean", e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return this.sampleInterval;
+    }
+
+    @Override
+    public void setSampleInterval(int sampleInterval) {
+        checkArgument(sampleInterval > 0, "sampleInterval must be positive");
+        this.sampleInterval = sampleInterval;
+    }
+
+    boolean shouldSample() {
+        int interval = this.sampleInterval;
+        if (interval <= 1) {
+            return true;
+        }
+        if (++this.sampleCounter >= interval) {
+            this.sampleCounter = 0;
+            return true;
+        }
+        return false;
+    }
+
+    Timing getEventTypeTiming(Class<?> eventClass) {
+        Timing timing = this.eventTypeTimings.get(eventClass);
+        if (timing == null) {
+            timing = new Timing();
+            Timing existing = this.eventTypeTimings.putIfAbsent(eventClass, timing);
+            if (existing != null) {
+                timing = existing;
+            }
+        }
+        return timing;
+    }
+
+    @Override
+    public void reset() {
+        this.eventTypeTimings.clear();
+        for (RegisteredHandler<?> handler : this.eventManager.getRegisteredHandlers()) {
+            handler.getTiming().reset();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getPluginTimes() {
+        Map<String, Long> times = Maps.newHashMap();
+        for (Map.Entry<PluginContainer, Timing> entry : getPluginTimings().entrySet()) {
+            times.put(entry.getKey().getId(), entry.getValue().getNanos());
+        }
+        return times;
+    }
+
+    @Override
+    public Map<String, Long> getListenerTimes() {
+        Map<String, Long> times = Maps.newHashMap();
+        for (RegisteredHandler<?> handler : this.eventManager.getRegisteredHandlers()) {
+            times.put(describe(handler), handler.getTiming().getNanos());
+        }
+        return times;
+    }
+
+    @Override
+    public Map<String, Long> getListenerCounts() {
+        Map<String, Long> counts = Maps.newHashMap();
+        for (RegisteredHandler<?> handler : this.eventManager.getRegisteredHandlers()) {
+            counts.put(describe(handler), handler.getTiming().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getEventTypeTimes() {
+        Map<String, Long> times = Maps.newHashMap();
+        for (Map.Entry<Class<?>, Timing> entry : this.eventTypeTimings.entrySet()) {
+            times.put(entry.getKey().getName(), entry.getValue().getNanos());
+        }
+        return times;
+    }
+
+    @Override
+    public Map<String, Long> getEventTypeCounts() {
+        Map<String, Long> counts = Maps.newHashMap();
+        for (Map.Entry<Class<?>, Timing> entry : this.eventTypeTimings.entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    private Map<PluginContainer, Timing> getPluginTimings() {
+        Map<PluginContainer, Timing> timings = Maps.newHashMap();
+        for (RegisteredHandler<?> handler : this.eventManager.getRegisteredHandlers()) {
+            Timing timing = timings.get(handler.getPlugin());
+            if (timing == null) {
+                timing = new Timing();
+                timings.put(handler.getPlugin(), timing);
+            }
+            timing.add(handler.getTiming());
+        }
+        return timings;
+    }
+
+    /**
+     * Creates a human readable report of the most expensive plugins,
+     * listeners and event types.
+     *
+     * @param limit The maximum number of entries per section
+     * @return The report lines
+     */
+    public List<String> createReport(int limit) {
+        List<String> lines = Lists.newArrayList();
+        lines.add("Event timings (" + (this.enabled ? "enabled" : "disabled") + ", sampling 1 in " + this.sampleInterval + " posts)");
+
+        Map<String, Timing> plugins = Maps.newHashMap();
+        for (Map.Entry<PluginContainer, Timing> entry : getPluginTimings().entrySet()) {
+            plugins.put(entry.getKey().getId(), entry.getValue());
+        }
+        appendSection(lines, "Plugins", plugins, limit);
+
+        Map<String, Timing> listeners = Maps.newHashMap();
+        for (RegisteredHandler<?> handler : this.eventManager.getRegisteredHandlers()) {
+            listeners.put(describe(handler), handler.getTiming());
+        }
+        appendSection(lines, "Listeners", listeners, limit);
+
+        Map<String, Timing> eventTypes = Maps.newHashMap();
+        for (Map.Entry<Class<?>, Timing> entry : this.eventTypeTimings.entrySet()) {
+            eventTypes.put(entry.getKey().getName(), entry.getValue());
+        }
+        appendSection(lines, "Event types", eventTypes, limit);
+        return lines;
+    }
+
+    private static void appendSection(List<String> lines, String title, Map<String, Timing> timings, int limit) {
+        List<Map.Entry<String, Timing>> entries = Lists.newArrayList(timings.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Timing>>() {
+
+            @Override
+            public int compare(Map.Entry<String, Timing> o1, Map.Entry<String, Timing> o2) {
+                long n1 = o1.getValue().getNanos();
+                long n2 = o2.getValue().getNanos();
+                return n1 < n2 ? 1 : n1 > n2 ? -1 : 0;
+            }
+        });
+
+        lines.add(title + ':');
+        int count = 0;
+        for (Map.Entry<String, Timing> entry : entries) {
+            Timing timing = entry.getValue();
+            if (count++ >= limit || timing.getCount() == 0) {
+                break;
+            }
+            lines.add("  " + entry.getKey() + ": " + timing.getCount() + " calls, "
+                    + TimeUnit.NANOSECONDS.toMillis(timing.getNanos()) + " ms total, "
+                    + timing.getNanos() / timing.getCount() + " ns avg");
+        }
+    }
+
+    private static String describe(RegisteredHandler<?> handler) {
+        String name = handler.getHandle().getClass().getName();
+        if (handler.getMethodName() != null) {
+            name += '#' + handler.getMethodName();
+        }
+        return handler.getPlugin().getId() + ' ' + name + " (" + handler.getEventClass().getSimpleName() + ", " + handler.getOrder() + ')';
+    }
+
+    public static final class Timing {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        void record(long nanos) {
+            this.count.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+        }
+
+        void add(Timing other) {
+            this.count.addAndGet(other.getCount());
+            this.nanos.addAndGet(other.getNanos());
+        }
+
+        void reset() {
+            this.count.set(0);
+            this.nanos.set(0);
+        }
+
+        public long getCount() {
+            return this.count.get();
+        }
+
+        public long getNanos() {
+            return this.nanos.get();
+        }
+
+    }
+
+}
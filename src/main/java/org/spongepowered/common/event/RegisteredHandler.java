@@ -33,10 +33,14 @@
 import org.spongepowered.api.event.EventHandler;
 import org.spongepowered.api.event.Order;
 import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.Sponge;
 
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 public final class RegisteredHandler<T extends Event> implements SpongeEventHandler<T>, Comparable<RegisteredHandler<?>> {
 
     private final PluginContainer plugin;
@@ -45,15 +49,27 @@
     private final Order order;
 
     private final EventHandler<? super T> handler;
+    @Nullable private final String methodName;
 
     private final boolean ignoreCancelled;
+    private final boolean asyncSafe;
+
+    private final EventTimings.Timing timing = new EventTimings.Timing();
 
-    RegisteredHandler(PluginContainer plugin, Class<T> eventClass, Order order, EventHandler<? super T> handler, boolean ignoreCancelled) {
+    RegisteredHandler(PluginContainer plugin, Class<T> eventClass, Order order, EventHandler<? super T> handler, boolean ignoreCancelled,
+            boolean asyncSafe) {
+        this(plugin, eventClass, order, handler, null, ignoreCancelled, asyncSafe);
+    }
+
+    RegisteredHandler(PluginContainer plugin, Class<T> eventClass, Order order, EventHandler<? super T> handler, @Nullable String methodName,
+            boolean ignoreCancelled, boolean asyncSafe) {
         this.plugin = checkNotNull(plugin, "plugin");
         this.eventClass = checkNotNull(eventClass, "eventClass");
         this.order = checkNotNull(order, "order");
         this.handler = checkNotNull(handler, "handler");
+        this.methodName = methodName;
         this.ignoreCancelled = ignoreCancelled;
+        this.asyncSafe = asyncSafe;
     }
 
     public PluginContainer getPlugin() {
@@ -68,6 +84,35 @@ public Order getOrder() {
         return this.order;
     }
 
+    public EventHandler<? super T> getHandler() {
+        return this.handler;
+    }
+
+    /**
+     * Gets the name of the {@link org.spongepowered.api.event.Subscribe}
+     * method this handler calls.
+     *
+     * @return The method name, or null if the handler was registered directly
+     */
+    @Nullable
+    public String getMethodName() {
+        return this.methodName;
+    }
+
+    public boolean isIgnoreCancelled() {
+        return this.ignoreCancelled;
+    }
+
+    /**
+     * Gets whether this handler may be called from the asynchronous event
+     * bus instead of the main thread.
+     *
+     * @return Whether the handler is {@link AsyncSafe}
+     */
+    public boolean isAsyncSafe() {
+        return this.asyncSafe;
+    }
+
     @Override
     public Object getHandle() {
         if (this.handler instanceof SpongeEventHandler) {
@@ -86,6 +131,26 @@ public void handle(T event) throws Exception {
         this.handler.handle(event);
     }
 
+    /**
+     * Handles the event like {@link #handle(Event)}, recording the time
+     * spent in the {@link #getTiming() timing} of this handler.
+     *
+     * @param event The event to handle
+     * @throws Exception If the handler throws an exception
+     */
+    public void handleTimed(T event) throws Exception {
+        long start = System.nanoTime();
+        try {
+            handle(event);
+        } finally {
+            this.timing.record(System.nanoTime() - start);
+        }
+    }
+
+    public EventTimings.Timing getTiming() {
+        return this.timing;
+    }
+
     @Override
     public int compareTo(RegisteredHandler<?> handler) {
         return this.order.compareTo(handler.order);
@@ -93,13 +158,25 @@ public int compareTo(RegisteredHandler<?> handler) {
 
     public static final class Cache {
 
+        private static final Order[] ORDERS = Order.values();
+        private static final RegisteredHandler<?>[] NO_HANDLERS = new RegisteredHandler<?>[0];
+
         private final List<RegisteredHandler<?>> handlers;
         private final EnumMap<Order, List<RegisteredHandler<?>>> handlersByOrder;
 
-        private static final Order[] ORDERS = Order.values();
+        // Immutable array snapshots so posting does not allocate iterators
+        private final RegisteredHandler<?>[] handlerArray;
+        private final RegisteredHandler<?>[][] handlerArraysByOrder;
+
+        @Nullable private final EventDispatcher dispatcher;
 
         Cache(List<RegisteredHandler<?>> handlers) {
-            this.handlers = handlers;
+            this(handlers, null);
+        }
+
+        Cache(List<RegisteredHandler<?>> handlers, @Nullable EventDispatcher.Factory dispatcherFactory) {
+            this.handlers = Collections.unmodifiableList(handlers);
+            this.handlerArray = handlers.isEmpty() ? NO_HANDLERS : handlers.toArray(new RegisteredHandler<?>[handlers.size()]);
 
             this.handlersByOrder = Maps.newEnumMap(Order.class);
             for (Order order : ORDERS) {
@@ -108,6 +185,24 @@ public static final class Cache {
             for (RegisteredHandler<?> handler : handlers) {
                 this.handlersByOrder.get(handler.getOrder()).add(handler);
             }
+
+            this.handlerArraysByOrder = new RegisteredHandler<?>[ORDERS.length][];
+            for (Order order : ORDERS) {
+                List<RegisteredHandler<?>> orderHandlers = this.handlersByOrder.get(order);
+                this.handlerArraysByOrder[order.ordinal()] =
+                        orderHandlers.isEmpty() ? NO_HANDLERS : orderHandlers.toArray(new RegisteredHandler<?>[orderHandlers.size()]);
+                this.handlersByOrder.put(order, Collections.unmodifiableList(orderHandlers));
+            }
+
+            EventDispatcher dispatcher = null;
+            if (dispatcherFactory != null && !handlers.isEmpty()) {
+                try {
+                    dispatcher = dispatcherFactory.create(this.handlerArray);
+                } catch (Exception e) {
+                    Sponge.getLogger().error("Failed to generate event dispatcher for {}, falling back to iterating handlers", handlers, e);
+                }
+            }
+            this.dispatcher = dispatcher;
         }
 
         public List<RegisteredHandler<?>> getHandlers() {
@@ -118,6 +213,20 @@ public List<RegisteredHandler<?>> getHandlersByOrder(Order order) {
             return this.handlersByOrder.get(checkNotNull(order, "order"));
         }
 
+        // The baked arrays are shared by every post and must not be modified
+        public RegisteredHandler<?>[] getHandlerArray() {
+            return this.handlerArray;
+        }
+
+        public RegisteredHandler<?>[] getHandlerArray(Order order) {
+            return this.handlerArraysByOrder[checkNotNull(order, "order").ordinal()];
+        }
+
+        @Nullable
+        EventDispatcher getDispatcher() {
+            return this.dispatcher;
+        }
+
     }
 
 }
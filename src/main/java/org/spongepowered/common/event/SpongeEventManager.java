@@ -27,15 +27,23 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.base.Supplier;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.server.MinecraftServer;
 import org.spongepowered.api.event.Cancellable;
 import org.spongepowered.api.event.Event;
 import org.spongepowered.api.event.EventHandler;
@@ -45,14 +53,25 @@
 import org.spongepowered.api.plugin.PluginManager;
 import org.spongepowered.api.service.event.EventManager;
 import org.spongepowered.common.Sponge;
+import org.spongepowered.common.configuration.SpongeConfig;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -62,41 +81,184 @@ public class SpongeEventManager implements EventManager {
     private final Object lock = new Object();
 
     private final PluginManager pluginManager;
-    private final AnnotatedEventHandler.Factory handlerFactory = new ClassEventHandlerFactory("org.spongepowered.common.event.handler");
+    private final ClassEventHandlerFactory classFactory = new ClassEventHandlerFactory("org.spongepowered.common.event.handler");
+    private final AnnotatedEventHandler.Factory handlerFactory = this.classFactory;
+    private final EventDispatcher.Factory dispatcherFactory = this.classFactory;
     private final Multimap<Class<?>, RegisteredHandler<?>> handlersByEvent = HashMultimap.create();
 
     /**
      * A cache of all the handlers for an event type for quick event posting.
-     * <p>The cache is currently entirely invalidated if handlers are added or removed.</p>
+     *
+     * <p>Entries are immutable and replaced as a whole when the handlers for
+     * one of the event's supertypes change, so they can be read without
+     * locking.</p>
      */
-    private final LoadingCache<Class<? extends Event>, RegisteredHandler.Cache> handlersCache =
-            CacheBuilder.newBuilder().build(new CacheLoader<Class<? extends Event>, RegisteredHandler.Cache>() {
-                @Override
-                public RegisteredHandler.Cache load(Class<? extends Event> eventClass) throws Exception {
-                    return bakeHandlers(eventClass);
-                }
-            });
+    private final Map<Class<?>, RegisteredHandler.Cache> handlersCache = new ConcurrentHashMap<Class<?>, RegisteredHandler.Cache>();
+
+    /**
+     * The event supertypes (including itself) of every event type we have
+     * seen, computed once per type.
+     */
+    private final Map<Class<?>, Set<Class<?>>> eventTypeHierarchy = new ConcurrentHashMap<Class<?>, Set<Class<?>>>();
+
+    /**
+     * The reverse of {@link #eventTypeHierarchy}: all known event types that
+     * handlers registered for the key type would receive. Guarded by the lock.
+     */
+    private final Multimap<Class<?>, Class<?>> knownSubtypes = HashMultimap.create();
+
+    /**
+     * Event types that were queried through {@link #hasHandlers(Class)},
+     * mapped to their index in {@link #listenedTypes}.
+     */
+    private final Map<Class<?>, Integer> eventTypeIds = new ConcurrentHashMap<Class<?>, Integer>();
+    private final List<Class<?>> eventTypesById = Lists.newArrayList();
+
+    /**
+     * A bit for every known event type that is set if at least one handler
+     * would receive an event of that type. The set is replaced as a whole
+     * whenever handlers change so it can be read without locking.
+     */
+    private volatile BitSet listenedTypes = new BitSet();
+
+    private final EventTimings timings = new EventTimings(this);
+
+    @Nullable private volatile ListeningExecutorService asyncExecutor;
 
     @Inject
     public SpongeEventManager(PluginManager pluginManager) {
         this.pluginManager = checkNotNull(pluginManager, "pluginManager");
+        this.timings.registerMBean();
     }
 
-    private RegisteredHandler.Cache bakeHandlers(Class<?> rootEvent) {
-        List<RegisteredHandler<?>> handlers = Lists.newArrayList();
-        @SuppressWarnings({"unchecked", "rawtypes"})
-        Set<Class<?>> types = (Set) TypeToken.of(rootEvent).getTypes().rawTypes();
+    public EventTimings getTimings() {
+        return this.timings;
+    }
 
+    /**
+     * Gets a snapshot of all currently registered handlers.
+     *
+     * @return The registered handlers
+     */
+    List<RegisteredHandler<?>> getRegisteredHandlers() {
         synchronized (this.lock) {
-            for (Class<?> type : types) {
+            return Lists.newArrayList(this.handlersByEvent.values());
+        }
+    }
+
+    private Set<Class<?>> getEventTypes(Class<?> rootEvent) {
+        Set<Class<?>> types = this.eventTypeHierarchy.get(rootEvent);
+        if (types == null) {
+            ImmutableSet.Builder<Class<?>> builder = ImmutableSet.builder();
+            for (Class<?> type : TypeToken.of(rootEvent).getTypes().rawTypes()) {
                 if (Event.class.isAssignableFrom(type)) {
-                    handlers.addAll(this.handlersByEvent.get(type));
+                    builder.add(type);
                 }
             }
+            types = builder.build();
+            this.eventTypeHierarchy.put(rootEvent, types);
+        }
+        return types;
+    }
+
+    // Must be called while holding the lock
+    private void indexEventType(Class<?> eventClass) {
+        for (Class<?> type : getEventTypes(eventClass)) {
+            this.knownSubtypes.put(type, eventClass);
+        }
+    }
+
+    // Must be called while holding the lock
+    private RegisteredHandler.Cache bakeHandlers(Class<?> rootEvent) {
+        List<RegisteredHandler<?>> handlers = Lists.newArrayList();
+        for (Class<?> type : getEventTypes(rootEvent)) {
+            handlers.addAll(this.handlersByEvent.get(type));
         }
 
         Collections.sort(handlers);
-        return new RegisteredHandler.Cache(handlers);
+        return new RegisteredHandler.Cache(handlers, useGeneratedDispatchers() ? this.dispatcherFactory : null);
+    }
+
+    private static boolean useGeneratedDispatchers() {
+        return Sponge.getGlobalConfig().getConfig().getEvent().useGeneratedDispatchers();
+    }
+
+    /**
+     * Checks whether any registered handler would receive an event of the
+     * given type.
+     *
+     * <p>This is meant to be called from hot paths before constructing an
+     * event, so the common case is a map lookup and a single bit test.</p>
+     *
+     * @param eventClass The event type, usually the event interface
+     * @return True if at least one handler listens for the event type
+     */
+    public boolean hasHandlers(Class<? extends Event> eventClass) {
+        Integer id = this.eventTypeIds.get(eventClass);
+        if (id == null) {
+            id = registerEventType(checkNotNull(eventClass, "eventClass"));
+        }
+        return this.listenedTypes.get(id);
+    }
+
+    private int registerEventType(Class<?> eventClass) {
+        synchronized (this.lock) {
+            Integer id = this.eventTypeIds.get(eventClass);
+            if (id == null) {
+                id = this.eventTypesById.size();
+                this.eventTypesById.add(eventClass);
+                indexEventType(eventClass);
+
+                BitSet listened = (BitSet) this.listenedTypes.clone();
+                listened.set(id, isListened(eventClass));
+                this.listenedTypes = listened;
+
+                // Only publish the id once its bit is set
+                this.eventTypeIds.put(eventClass, id);
+            }
+            return id;
+        }
+    }
+
+    // Must be called while holding the lock
+    private boolean isListened(Class<?> eventClass) {
+        for (Class<?> type : getEventTypes(eventClass)) {
+            if (this.handlersByEvent.containsKey(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the cached state of every known event type that receives
+     * handlers registered for one of the changed types. Event types that are
+     * unrelated to the change keep their caches.
+     *
+     * <p>Must be called while holding the lock.</p>
+     *
+     * @param changedTypes The event types handlers were added to or removed from
+     */
+    private void updateEventTypes(Set<Class<?>> changedTypes) {
+        Set<Class<?>> affected = Sets.newHashSet();
+        for (Class<?> type : changedTypes) {
+            affected.addAll(this.knownSubtypes.get(type));
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        BitSet listened = (BitSet) this.listenedTypes.clone();
+        for (Class<?> eventClass : affected) {
+            if (this.handlersCache.containsKey(eventClass)) {
+                this.handlersCache.put(eventClass, bakeHandlers(eventClass));
+            }
+            Integer id = this.eventTypeIds.get(eventClass);
+            if (id != null) {
+                listened.set(id, isListened(eventClass));
+            }
+        }
+        this.listenedTypes = listened;
     }
 
     private static boolean isValidHandler(Method method) {
@@ -117,17 +279,15 @@ private void register(RegisteredHandler<?> handler) {
 
     private void register(List<RegisteredHandler<?>> handlers) {
         synchronized (this.lock) {
-            boolean changed = false;
+            Set<Class<?>> changedTypes = Sets.newHashSet();
 
             for (RegisteredHandler handler : handlers) {
                 if (this.handlersByEvent.put(handler.getEventClass(), handler)) {
-                    changed = true;
+                    changedTypes.add(handler.getEventClass());
                 }
             }
 
-            if (changed) {
-                this.handlersCache.invalidateAll();
-            }
+            updateEventTypes(changedTypes);
         }
     }
 
@@ -139,6 +299,14 @@ public void register(PluginContainer plugin, Object listener) {
 
         Class<?> handle = listener.getClass();
         for (Method method : handle.getMethods()) {
+            boolean asyncSafe;
+            try {
+                asyncSafe = ClassEventHandlerFactory.isAsyncSafe(method);
+            } catch (IllegalArgumentException e) {
+                Sponge.getLogger().warn(e.getMessage());
+                continue;
+            }
+
             Subscribe subscribe = method.getAnnotation(Subscribe.class);
             if (subscribe != null) {
                 if (isValidHandler(method)) {
@@ -152,7 +320,8 @@ public void register(PluginContainer plugin, Object listener) {
                         continue;
                     }
 
-                    handlers.add(createRegistration(plugin, eventClass, subscribe, handler));
+                    handlers.add(createRegistration(plugin, eventClass, subscribe.order(), subscribe.ignoreCancelled(), asyncSafe, handler,
+                            method.getName()));
                 } else {
                     Sponge.getLogger().warn("The method {} on {} has @{} but has the wrong signature", method, handle.getName(),
                             Subscribe.class.getName());
@@ -163,14 +332,9 @@ public void register(PluginContainer plugin, Object listener) {
         register(handlers);
     }
 
-    private static <T extends Event> RegisteredHandler<T> createRegistration(PluginContainer plugin, Class<T> eventClass, Subscribe subscribe,
-            EventHandler<? super T> handler) {
-        return createRegistration(plugin, eventClass, subscribe.order(), subscribe.ignoreCancelled(), handler);
-    }
-
     private static <T extends Event> RegisteredHandler<T> createRegistration(PluginContainer plugin, Class<T> eventClass, Order order,
-            boolean ignoreCancelled, EventHandler<? super T> handler) {
-        return new RegisteredHandler<T>(plugin, eventClass, order, handler, ignoreCancelled);
+            boolean ignoreCancelled, boolean asyncSafe, EventHandler<? super T> handler, @Nullable String methodName) {
+        return new RegisteredHandler<T>(plugin, eventClass, order, handler, methodName, ignoreCancelled, asyncSafe);
     }
 
     private PluginContainer getPlugin(Object plugin) {
@@ -191,25 +355,24 @@ public <T extends Event> void register(Object plugin, Class<T> eventClass, Event
 
     @Override
     public <T extends Event> void register(Object plugin, Class<T> eventClass, Order order, EventHandler<? super T> handler) {
-        register(createRegistration(getPlugin(plugin), eventClass, order, false, handler));
+        register(createRegistration(getPlugin(plugin), eventClass, order, false, handler.getClass().isAnnotationPresent(AsyncSafe.class),
+                handler, null));
     }
 
     private void unregister(Predicate<RegisteredHandler<?>> unregister) {
         synchronized (this.lock) {
-            boolean changed = false;
+            Set<Class<?>> changedTypes = Sets.newHashSet();
 
             Iterator<RegisteredHandler<?>> itr = this.handlersByEvent.values().iterator();
             while (itr.hasNext()) {
                 RegisteredHandler<?> handler = itr.next();
                 if (unregister.apply(handler)) {
                     itr.remove();
-                    changed = true;
+                    changedTypes.add(handler.getEventClass());
                 }
             }
 
-            if (changed) {
-                this.handlersCache.invalidateAll();
-            }
+            updateEventTypes(changedTypes);
         }
     }
 
@@ -238,9 +401,27 @@ public boolean apply(RegisteredHandler<?> handler) {
     }
 
     protected RegisteredHandler.Cache getHandlerCache(Event event) {
-        return this.handlersCache.getUnchecked(checkNotNull(event, "event").getClass());
+        Class<?> eventClass = checkNotNull(event, "event").getClass();
+        RegisteredHandler.Cache cache = this.handlersCache.get(eventClass);
+        if (cache == null) {
+            // Only the first event of each type has to take the lock
+            synchronized (this.lock) {
+                cache = this.handlersCache.get(eventClass);
+                if (cache == null) {
+                    indexEventType(eventClass);
+                    cache = bakeHandlers(eventClass);
+                    this.handlersCache.put(eventClass, cache);
+                }
+            }
+        }
+        return cache;
     }
 
+    /**
+     * Posts an event to a list of handlers. Callers that post from the
+     * handler cache should pass its baked array to
+     * {@link #post(Event, RegisteredHandler[])} instead.
+     */
     @SuppressWarnings("unchecked")
     protected static boolean post(Event event, List<RegisteredHandler<?>> handlers) {
         for (RegisteredHandler handler : handlers) {
@@ -254,13 +435,201 @@ protected static boolean post(Event event, List<RegisteredHandler<?>> handlers)
         return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 
+    @SuppressWarnings("unchecked")
+    protected static boolean post(Event event, RegisteredHandler<?>[] handlers) {
+        for (RegisteredHandler handler : handlers) {
+            try {
+                handler.handle(event);
+            } catch (Throwable e) {
+                Sponge.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+            }
+        }
+
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean postTimed(Event event, RegisteredHandler<?>[] handlers) {
+        long start = System.nanoTime();
+        for (RegisteredHandler handler : handlers) {
+            try {
+                handler.handleTimed(event);
+            } catch (Throwable e) {
+                Sponge.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+            }
+        }
+        this.timings.getEventTypeTiming(event.getClass()).record(System.nanoTime() - start);
+
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
     @Override
     public boolean post(Event event) {
-        return post(event, getHandlerCache(event).getHandlers());
+        RegisteredHandler.Cache cache = getHandlerCache(event);
+        if (this.timings.isEnabled() && this.timings.shouldSample()) {
+            return postTimed(event, cache.getHandlerArray());
+        }
+
+        EventDispatcher dispatcher = cache.getDispatcher();
+        if (dispatcher == null) {
+            return post(event, cache.getHandlerArray());
+        }
+
+        dispatcher.dispatch(event);
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 
     public boolean post(Event event, Order order) {
-        return post(event, getHandlerCache(event).getHandlersByOrder(order));
+        RegisteredHandler<?>[] handlers = getHandlerCache(event).getHandlerArray(order);
+        if (this.timings.isEnabled() && this.timings.shouldSample()) {
+            return postTimed(event, handlers);
+        }
+        return post(event, handlers);
+    }
+
+    /**
+     * Posts an event that is only constructed if a handler listens for the
+     * given event type.
+     *
+     * <p>Use this for events fired on hot paths, where building the event and
+     * its arguments is expensive compared to the handlers themselves.</p>
+     *
+     * @param eventClass The type of the event that would be posted
+     * @param eventSupplier The supplier that creates the event
+     * @param <E> The event type
+     * @return True if the event was posted and is cancelled
+     */
+    public <E extends Event> boolean post(Class<E> eventClass, Supplier<? extends E> eventSupplier) {
+        return hasHandlers(eventClass) && post(eventSupplier.get());
+    }
+
+    private ListeningExecutorService getAsyncExecutor() {
+        ListeningExecutorService executor = this.asyncExecutor;
+        if (executor == null) {
+            synchronized (this.lock) {
+                executor = this.asyncExecutor;
+                if (executor == null) {
+                    SpongeConfig.EventCategory config = Sponge.getGlobalConfig().getConfig().getEvent();
+                    int threads = Math.max(1, config.getAsyncThreads());
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(Math.max(1, config.getAsyncQueueSize())),
+                            new ThreadFactoryBuilder().setNameFormat("Sponge Event Bus #%d").setDaemon(true).build(),
+                            // A full queue rejects the event, the posting thread must never run the handlers itself
+                            new ThreadPoolExecutor.AbortPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = MoreExecutors.listeningDecorator(pool);
+                    this.asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Posts an event on the asynchronous event bus, so the calling thread
+     * does not have to wait for the handlers.
+     *
+     * <p>Handlers marked {@link AsyncSafe} are called on the event bus thread.
+     * Consecutive handlers that are not are called together in a single task
+     * on the main thread. The tasks are chained, so the handlers are still
+     * called in order, but no thread waits for the main thread.</p>
+     *
+     * <p>If the event bus queue is full, the event is dropped and the future
+     * fails with a {@link RejectedExecutionException}.</p>
+     *
+     * @param event The event to post
+     * @return A future that completes with whether the event was cancelled
+     *         once all handlers were called
+     */
+    public ListenableFuture<Boolean> postAsync(final Event event) {
+        RegisteredHandler<?>[] handlers = getHandlerCache(event).getHandlerArray();
+        if (handlers.length == 0) {
+            return Futures.immediateFuture(isCancelled(event));
+        }
+
+        final boolean timed = this.timings.isEnabled() && this.timings.shouldSample();
+        final long start = System.nanoTime();
+        MinecraftServer server = MinecraftServer.getServer();
+        // Before the server started ticking (or after it stopped) nothing
+        // would run the tasks we hand to the main thread
+        boolean useMainThread = server != null && server.serverIsInRunLoop();
+
+        ListenableFuture<Object> future = Futures.<Object>immediateFuture(null);
+        for (int i = 0; i < handlers.length;) {
+            final boolean onMainThread = useMainThread && !handlers[i].isAsyncSafe();
+            int end = i + 1;
+            while (end < handlers.length && (useMainThread && !handlers[end].isAsyncSafe()) == onMainThread) {
+                end++;
+            }
+            final RegisteredHandler<?>[] group = Arrays.copyOfRange(handlers, i, end);
+            future = Futures.transform(future, new AsyncFunction<Object, Object>() {
+
+                @Override
+                public ListenableFuture<Object> apply(Object input) throws Exception {
+                    return submitHandlers(event, group, onMainThread, timed);
+                }
+            });
+            i = end;
+        }
+
+        ListenableFuture<Boolean> result = Futures.transform(future, new Function<Object, Boolean>() {
+
+            @Override
+            public Boolean apply(Object input) {
+                return isCancelled(event);
+            }
+        });
+        if (timed) {
+            result.addListener(new Runnable() {
+
+                @Override
+                public void run() {
+                    SpongeEventManager.this.timings.getEventTypeTiming(event.getClass()).record(System.nanoTime() - start);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ListenableFuture<Object> submitHandlers(final Event event, final RegisteredHandler<?>[] handlers, boolean onMainThread,
+            final boolean timed) {
+        Callable<Object> task = new Callable<Object>() {
+
+            @Override
+            public Object call() throws Exception {
+                for (RegisteredHandler handler : handlers) {
+                    try {
+                        handle(handler, event, timed);
+                    } catch (Throwable e) {
+                        Sponge.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+                    }
+                }
+                return null;
+            }
+        };
+        if (onMainThread) {
+            return MinecraftServer.getServer().callFromMainThread(task);
+        }
+        try {
+            return getAsyncExecutor().submit(task);
+        } catch (RejectedExecutionException e) {
+            Sponge.getLogger().warn("The asynchronous event bus is full, dropping {}", event.getClass().getSimpleName());
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    private static boolean isCancelled(Event event) {
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void handle(RegisteredHandler handler, Event event, boolean timed) throws Exception {
+        if (timed) {
+            handler.handleTimed(event);
+        } else {
+            handler.handle(event);
+        }
     }
 
 }
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.interfaces;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+public interface IMixinAnvilChunkLoader {
+
+    /**
+     * Reads and decompresses the stored data of a chunk, without creating
+     * the chunk itself. This is safe to call off the main thread.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The chunk data, or null if the chunk was never saved
+     * @throws IOException If the region file could not be read
+     */
+    @Nullable
+    NBTTagCompound readChunkData(int x, int z) throws IOException;
+
+    /**
+     * Gets whether a chunk was saved, without reading its data.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return Whether the chunk exists
+     * @throws IOException If the region file could not be read
+     */
+    boolean chunkExists(int x, int z) throws IOException;
+
+    /**
+     * Creates a chunk from data read by {@link #readChunkData(int, int)}.
+     * This creates the entities and tile entities of the chunk and has to be
+     * called on the main thread.
+     *
+     * @param world The world of the chunk
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param data The chunk data
+     * @return The chunk, or null if the data is invalid
+     */
+    @Nullable
+    Chunk readChunkFromData(World world, int x, int z, NBTTagCompound data);
+
+    /**
+     * Gets the number of saved chunks that are waiting to be written.
+     *
+     * @return The number of pending chunks
+     */
+    int getPendingChunkCount();
+
+    /**
+     * Writes the chunks that are pending at the time of the call to their
+     * region files.
+     */
+    void writePendingChunks();
+
+    /**
+     * Removes a written chunk from the pending chunks, unless it was saved
+     * again in the meantime.
+     *
+     * @param pos The position of the chunk
+     * @param data The data that was written
+     */
+    void onChunkWritten(ChunkCoordIntPair pos, NBTTagCompound data);
+
+}
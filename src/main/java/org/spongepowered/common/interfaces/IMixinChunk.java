@@ -0,0 +1,65 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.interfaces;
+
+import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
+
+public interface IMixinChunk {
+
+    /**
+     * Gets the number of entities of a category in this chunk.
+     *
+     * @param category The category, see
+     *     {@link org.spongepowered.common.entity.ChunkEntityLimits}
+     * @return The number of entities
+     */
+    int getEntityCount(int category);
+
+    int getEntityCount();
+
+    long getLastEntityCountWarning();
+
+    void setLastEntityCountWarning(long time);
+
+    /**
+     * Gets an immutable view of the blocks of this chunk. The snapshot shares
+     * the sections of this chunk until the chunk modifies them, so it is
+     * cheap to take and safe to read from other threads. Must be called on
+     * the main thread.
+     *
+     * @return The snapshot
+     */
+    ImmutableBlockBuffer getSnapshot();
+
+    /**
+     * Copies the block array of a section if it is shared with a snapshot.
+     * Must be called before a section is modified without going through
+     * {@link net.minecraft.world.chunk.Chunk#setBlockState}.
+     *
+     * @param sectionY The y coordinate of the section
+     */
+    void unshareSection(int sectionY);
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.interfaces;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import org.spongepowered.common.util.LongObjectHashMap;
+
+import javax.annotation.Nullable;
+
+public interface IMixinChunkProviderServer {
+
+    IChunkLoader getChunkLoader();
+
+    /**
+     * Saves a chunk if it was modified, as a full save would.
+     *
+     * @param chunk The chunk
+     * @return Whether the chunk was saved
+     */
+    boolean saveChunk(Chunk chunk);
+
+    /**
+     * Creates a chunk from data that was read ahead of time and adds it to
+     * the loaded chunks, the same way a synchronous load would.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param data The chunk data
+     * @return The loaded chunk, or null if the data is invalid
+     */
+    @Nullable
+    Chunk loadChunkFromData(int x, int z, NBTTagCompound data);
+
+    /**
+     * Generates a new chunk without adding it to the loaded chunks.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The generated chunk
+     */
+    Chunk generateChunk(int x, int z);
+
+    /**
+     * Adds a chunk created by {@link #generateChunk(int, int)} to the loaded
+     * chunks and populates it, the same way a synchronous load would.
+     *
+     * @param chunk The generated chunk
+     */
+    void addGeneratedChunk(Chunk chunk);
+
+    /**
+     * Saves and unloads a chunk right away, the same way a queued unload
+     * would.
+     *
+     * @param chunk The chunk
+     */
+    void unloadChunk(Chunk chunk);
+
+    /**
+     * Gets a loaded chunk with a single lookup, without loading it.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The chunk, or null if it is not loaded
+     */
+    @Nullable
+    Chunk getLoadedChunk(int x, int z);
+
+    /**
+     * Gets the loaded chunks by their {@link net.minecraft.world.ChunkCoordIntPair#chunkXZ2Int(int, int)
+     * key}. The map must not be modified.
+     *
+     * @return The loaded chunks
+     */
+    LongObjectHashMap<Chunk> getLoadedChunkMap();
+
+}
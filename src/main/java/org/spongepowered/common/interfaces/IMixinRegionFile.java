@@ -0,0 +1,51 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.interfaces;
+
+import java.io.IOException;
+
+public interface IMixinRegionFile {
+
+    /**
+     * Gets the first sector of a chunk in the file, used to order writes.
+     *
+     * @param x The chunk x coordinate within the region
+     * @param z The chunk z coordinate within the region
+     * @return The sector, or {@link Integer#MAX_VALUE} for new chunks
+     */
+    int getSector(int x, int z);
+
+    /**
+     * Writes the deflate compressed data of a chunk.
+     *
+     * @param x The chunk x coordinate within the region
+     * @param z The chunk z coordinate within the region
+     * @param data The compressed data
+     * @param length The number of bytes to write from the data
+     * @throws IOException If the file could not be written
+     */
+    void writeChunk(int x, int z, byte[] data, int length) throws IOException;
+
+}
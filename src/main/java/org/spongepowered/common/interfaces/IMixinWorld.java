@@ -24,16 +24,81 @@
  */
 package org.spongepowered.common.interfaces;
 
+import com.flowpowered.math.vector.Vector3d;
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.world.storage.WorldInfo;
+import org.spongepowered.api.entity.Entity;
+import org.spongepowered.api.util.gen.BlockBuffer;
+import org.spongepowered.api.util.gen.MutableBlockBuffer;
+import org.spongepowered.api.world.Chunk;
 import org.spongepowered.api.world.gen.GeneratorPopulator;
 import org.spongepowered.api.world.gen.Populator;
 import org.spongepowered.common.configuration.SpongeConfig;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
+import org.spongepowered.common.world.WorldBlockBuffers;
+
+import java.util.Collection;
+
+import javax.annotation.Nullable;
 
 public interface IMixinWorld {
 
     SpongeConfig<SpongeConfig.WorldConfig> getWorldConfig();
 
+    /**
+     * Gets the resolved settings of the config that is active for this
+     * world. The snapshot is cached until any config is saved or reloaded.
+     *
+     * @return The active config snapshot
+     */
+    SpongeConfigSnapshot getActiveConfig();
+
+    /**
+     * Gets the entities of the given type whose bounding box intersects the
+     * given box. Only the chunk sections that intersect the box are searched.
+     *
+     * @param box The box to search in
+     * @param type The type of the entities
+     * @param filter The filter the entities have to match, may be null
+     * @param <T> The type of the entities
+     * @return The matching entities
+     */
+    <T extends Entity> Collection<T> getEntities(AxisAlignedBB box, Class<T> type, @Nullable Predicate<? super T> filter);
+
+    /**
+     * Gets the entities within the given distance of the given position.
+     * Only the chunk sections that are in range are searched.
+     *
+     * @param position The center of the search
+     * @param radius The maximum distance
+     * @return The nearby entities
+     */
+    Collection<Entity> getNearbyEntities(Vector3d position, double radius);
+
+    /**
+     * Copies the blocks between the given positions, inclusive, into a new
+     * buffer, section by section.
+     *
+     * @param min The lowest position
+     * @param max The highest position
+     * @return The buffer
+     */
+    MutableBlockBuffer getBlockBuffer(Vector3i min, Vector3i max);
+
+    /**
+     * Writes all blocks of the buffer to this world, section by section.
+     * Lighting is updated once per modified chunk.
+     *
+     * @param buffer The blocks to write
+     * @param flags The {@link WorldBlockBuffers} update flags
+     */
+    void setBlocks(BlockBuffer buffer, int flags);
+
     ImmutableList<Populator> getPopulators();
 
     ImmutableList<GeneratorPopulator> getGeneratorPopulators();
@@ -42,4 +107,37 @@ public interface IMixinWorld {
 
     void updateWorldGenerator();
 
+    /**
+     * Loads the chunk at the given chunk position without blocking the
+     * calling thread on disk I/O. The returned future completes on the main
+     * thread.
+     *
+     * @param position The chunk position
+     * @param generate Whether to generate the chunk if it does not exist
+     * @return The future chunk
+     */
+    ListenableFuture<Optional<Chunk>> loadChunkAsync(Vector3i position, boolean generate);
+
+    /**
+     * Integrates the chunks loaded by {@link #loadChunkAsync} since the last
+     * tick. Called on the main thread.
+     */
+    void integrateLoadedChunks();
+
+    /**
+     * Gets the number of entities that were fully updated in the last tick
+     * by the entity activation range module.
+     *
+     * @return The number of active entities
+     */
+    int getActiveEntityCount();
+
+    /**
+     * Gets the number of entities that only got an inactive tick in the last
+     * tick.
+     *
+     * @return The number of inactive entities
+     */
+    int getInactiveEntityCount();
+
 }
@@ -129,6 +129,10 @@ public void setTickRandomly(boolean tickRandomly) {
 
     @Inject(method = "randomTick", at = @At(value = "HEAD"), locals = LocalCapture.CAPTURE_FAILEXCEPTION, cancellable = true)
     public void callRandomTickEvent(World world, BlockPos pos, IBlockState state, Random rand, CallbackInfo ci) {
+        // Random ticks are extremely frequent, so only build the location and event if a plugin listens
+        if (!Sponge.getSpongeEventManager().hasHandlers(BlockRandomTickEvent.class)) {
+            return;
+        }
         final BlockRandomTickEvent event = SpongeEventFactory.createBlockRandomTick(Sponge.getGame(), null, new Location((Extent)world, VecHelper.toVector(pos))); //TODO Fix null Cause
         Sponge.getGame().getEventManager().post(event);
         if(event.isCancelled()) {
@@ -31,10 +31,25 @@
 import org.spongepowered.api.data.manipulator.entity.AgeableData;
 import org.spongepowered.api.entity.living.Ageable;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 
 @Mixin(EntityAgeable.class)
 public abstract class MixinEntityAgeable extends MixinEntityLiving implements Ageable {
 
+    @Shadow public abstract int getGrowingAge();
+    @Shadow public abstract void setGrowingAge(int age);
+
+    @Override
+    public void inactiveTick() {
+        super.inactiveTick();
+        int age = getGrowingAge();
+        if (age < 0) {
+            setGrowingAge(age + 1);
+        } else if (age > 0) {
+            setGrowingAge(age - 1);
+        }
+    }
+
     @Override
     public AgeableData getAgeData() {
         return getData(AgeableData.class).get();
@@ -94,6 +94,9 @@ public void setCanPickupItems(boolean canPickupItems) {
 
     @Inject(method = "interactFirst", at = @At(value = "INVOKE", target = "net/minecraft/entity/EntityLiving.setLeashedToEntity (Lnet/minecraft/entity/Entity;Z)V"), locals = LocalCapture.CAPTURE_FAILEXCEPTION, cancellable = true)
     public void callLeashEvent(EntityPlayer playerIn, CallbackInfoReturnable<Boolean> ci, ItemStack itemstack) {
+        if (!Sponge.getSpongeEventManager().hasHandlers(EntityLeashEvent.class)) {
+            return;
+        }
         final EntityLeashEvent event = SpongeEventFactory.createEntityLeash(Sponge.getGame(), this, (Player)playerIn);
         Sponge.getGame().getEventManager().post(event);
         if(event.isCancelled()) {
@@ -103,6 +106,9 @@ public void callLeashEvent(EntityPlayer playerIn, CallbackInfoReturnable<Boolean
 
     @Inject(method = "clearLeashed", at = @At(value = "FIELD", target = "net/minecraft/entity/EntityLiving.isLeashed : Z", opcode = Opcodes.PUTFIELD), cancellable = true)
     public void callUnleashEvent(boolean sendPacket, boolean dropLead, CallbackInfo ci) {
+        if (!Sponge.getSpongeEventManager().hasHandlers(EntityUnleashEvent.class)) {
+            return;
+        }
         final EntityUnleashEvent event = SpongeEventFactory.createEntityUnleash(Sponge.getGame(), this, (Entity)getLeashedToEntity());
         Sponge.getGame().getEventManager().post(event);
         if(event.isCancelled()) {
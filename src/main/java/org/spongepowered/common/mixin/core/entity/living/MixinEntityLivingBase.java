@@ -74,6 +74,7 @@ public abstract class MixinEntityLivingBase extends MixinEntity implements Livin
     @Shadow public EntityLivingBase entityLivingToAttack;
     @Shadow protected float lastDamage;
     @Shadow protected EntityPlayer attackingPlayer;
+    @Shadow protected int entityAge;
     @Shadow public abstract void setHealth(float health);
     @Shadow public abstract void addPotionEffect(net.minecraft.potion.PotionEffect potionEffect);
     @Shadow public abstract void removePotionEffect(int id);
@@ -257,6 +258,12 @@ public void setAPIInvisible(boolean invisible) {
 
 
 
+    @Override
+    public void inactiveTick() {
+        // Used by living entities to despawn after being away from players
+        this.entityAge++;
+    }
+
     @Override
     public void readFromNbt(NBTTagCompound compound) {
         super.readFromNbt(compound);
@@ -124,6 +124,10 @@ public void sendCustomPayload(Object plugin, String channel, byte[] data) {
      */
     @Inject(method = "processUpdateSign", at = @At(value = "INVOKE", target = "Lnet/minecraft/network/play/client/C12PacketUpdateSign;getLines()[Lnet/minecraft/util/IChatComponent;"), cancellable = true, locals = LocalCapture.CAPTURE_FAILSOFT)
     public void callSignChangeEvent(C12PacketUpdateSign packetIn, CallbackInfo ci, WorldServer worldserver, BlockPos blockpos, TileEntity tileentity, TileEntitySign tileentitysign) {
+        if (!Sponge.getSpongeEventManager().hasHandlers(SignChangeEvent.class)) {
+            // Nothing listens, so let vanilla copy the lines without building the sign data and event
+            return;
+        }
         ci.cancel();
         final Optional<SignData> existingSignData = ((Sign) tileentitysign).getData();
         if (!existingSignData.isPresent()) {
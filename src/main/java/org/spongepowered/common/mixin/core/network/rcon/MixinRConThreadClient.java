@@ -24,6 +24,8 @@
  */
 package org.spongepowered.common.mixin.core.network.rcon;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import net.minecraft.network.rcon.IServer;
 import net.minecraft.network.rcon.RConConsoleSource;
 import net.minecraft.network.rcon.RConThreadBase;
@@ -41,16 +43,17 @@
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.Sponge;
 import org.spongepowered.common.interfaces.IMixinRConConsoleSource;
+import org.spongepowered.common.interfaces.IMixinRConThreadClient;
+import org.spongepowered.common.service.rcon.RconCommandTask;
+import org.spongepowered.common.service.rcon.RconLoginCallback;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 
 @Mixin(RConThreadClient.class)
-public abstract class MixinRConThreadClient extends RConThreadBase implements RemoteConnection {
-
-    @Shadow
-    private boolean loggedIn;
+public abstract class MixinRConThreadClient extends RConThreadBase implements RemoteConnection, IMixinRConThreadClient {
 
     @Shadow
     private Socket clientSocket;
@@ -58,7 +61,19 @@ public abstract class MixinRConThreadClient extends RConThreadBase implements Re
     @Shadow
     protected abstract void sendResponse(int id, int packetId, String payload) throws IOException;
 
+    @Shadow
+    protected abstract void sendMultipacketResponse(int id, String payload) throws IOException;
+
+    @Shadow
+    protected abstract void sendLoginFailedResponse() throws IOException;
+
     private RConConsoleSource source;
+    // Set once the login event was handled, possibly on another thread; commands are refused until then
+    private volatile boolean loginAccepted;
+    // The client thread and the login and command callbacks all write to the same socket
+    private final Object writeLock = new Object();
+    // The command the client thread just handed to the main thread, answered from a callback
+    private String pendingCommand;
 
     protected MixinRConThreadClient(IServer p_i45300_1_, String p_i45300_2_) {
         super(p_i45300_1_, p_i45300_2_);
@@ -83,30 +98,88 @@ public InetSocketAddress getVirtualHost() {
     @Redirect(method = "run", at = @At(value = "INVOKE", target = "net.minecraft.network.rcon.IServer.handleRConCommand(Ljava/lang/String;)"
             + "Ljava/lang/String;"))
     public String commandExecutionHook(IServer server, String commandStr) {
+        // The command is run on the main thread once the response is about to be sent, see onCommandResponse
+        if (this.loginAccepted) {
+            this.pendingCommand = commandStr;
+        }
+        return null;
+    }
+
+    @Redirect(method = "run", at = @At(value = "INVOKE",
+            target = "net.minecraft.network.rcon.RConThreadClient.sendMultipacketResponse(ILjava/lang/String;)V"))
+    public void onCommandResponse(RConThreadClient client, int requestId, String payload) throws IOException {
+        if (payload != null) {
+            sendMultipacketResponse(requestId, payload);
+        } else if (this.pendingCommand != null) {
+            RconCommandTask task = new RconCommandTask(this, requestId, this.pendingCommand);
+            this.pendingCommand = null;
+            @SuppressWarnings("unchecked")
+            ListenableFuture<String> future = MinecraftServer.getServer().callFromMainThread(task);
+            Futures.addCallback(future, task);
+        } else {
+            // The login event was not handled yet, or was cancelled
+            sendLoginFailedResponse();
+        }
+    }
+
+    @Override
+    public String runCommand(String command) {
+        MinecraftServer.getServer().getCommandManager().executeCommand(this.source, command);
+        final String logContents = this.source.getLogContents();
+        this.source.resetLog();
+        return logContents;
+    }
+
+    @Override
+    public void completeCommand(int requestId, String response) {
+        Socket socket = this.clientSocket;
+        if (socket == null) {
+            return;
+        }
         try {
-            synchronized (this.clientSocket) {
-                MinecraftServer.getServer().getCommandManager().executeCommand(this.source, commandStr);
-                final String logContents = this.source.getLogContents();
-                this.source.resetLog();
-                return logContents;
-            }
+            sendMultipacketResponse(requestId, response);
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+            // Also thrown if the socket was closed by the client thread meanwhile
+            Sponge.getLogger().warn("Failed to answer an RCON command of {}", socket.getRemoteSocketAddress(), e);
         }
     }
 
-    @Inject(method = "run", at = @At(value = "INVOKE", target = "net.minecraft.network.rcon.RConThreadClient.sendResponse(IILjava/lang/String;)V",
-            shift = At.Shift.BEFORE))
-    public void rconLoginCallback(CallbackInfo ci) throws IOException {
+    @Redirect(method = "run", at = @At(value = "INVOKE", target = "net.minecraft.network.rcon.RConThreadClient.sendResponse(IILjava/lang/String;)V"))
+    public void onLoginResponse(RConThreadClient client, int requestId, int packetId, String payload) {
         if (this.source == null) {
             initSource();
         }
+        // Commands are refused until the login event was handled
+        this.loginAccepted = false;
         RconLoginEvent event = SpongeEventFactory.createRconLogin(Sponge.getGame(), ((RconSource) this.source));
-        Sponge.getGame().getEventManager().post(event);
-        if (event.isCancelled()) {
-            this.loggedIn = false;
-            throw new IOException("Cancelled login");
+        Futures.addCallback(Sponge.getSpongeEventManager().postAsync(event), new RconLoginCallback(this, requestId));
+    }
+
+    @Override
+    public void completeLogin(int requestId, boolean cancelled) {
+        Socket socket = this.clientSocket;
+        if (socket == null) {
+            return;
+        }
+        try {
+            if (cancelled) {
+                synchronized (this.writeLock) {
+                    // Ends the read loop of the client thread, which then closes the connection
+                    socket.close();
+                }
+            } else {
+                this.loginAccepted = true;
+                sendResponse(requestId, 2, "");
+            }
+        } catch (IOException e) {
+            Sponge.getLogger().warn("Failed to answer the RCON login of {}", socket.getRemoteSocketAddress(), e);
+        }
+    }
+
+    @Redirect(method = "sendResponse", at = @At(value = "INVOKE", target = "java.io.OutputStream.write([B)V"))
+    public void onWriteResponse(OutputStream out, byte[] data) throws IOException {
+        synchronized (this.writeLock) {
+            out.write(data);
         }
     }
 
@@ -115,8 +188,8 @@ public void rconLogoutCallback(CallbackInfo ci){
         if (this.source == null) {
             initSource();
         }
-        if (this.loggedIn) {
-            Sponge.getGame().getEventManager().post(SpongeEventFactory.createRconQuit(Sponge.getGame(), (RconSource) this.source));
+        if (this.loginAccepted) {
+            Sponge.getSpongeEventManager().postAsync(SpongeEventFactory.createRconQuit(Sponge.getGame(), (RconSource) this.source));
         }
     }
 }
@@ -25,15 +25,12 @@
 package org.spongepowered.common.mixin.core.status;
 
 import net.minecraft.network.NetworkManager;
-import net.minecraft.network.ServerStatusResponse;
 import net.minecraft.network.status.client.C00PacketServerQuery;
-import net.minecraft.network.status.server.S00PacketServerInfo;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.NetHandlerStatusServer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
-import org.spongepowered.common.status.SpongeStatusClient;
 import org.spongepowered.common.status.SpongeStatusResponse;
 
 @Mixin(NetHandlerStatusServer.class)
@@ -47,13 +44,7 @@ public abstract class MixinNetHandlerStatusServer {
 
     @Overwrite
     public void processServerQuery(C00PacketServerQuery packetIn) {
-        // Clone the response
-        ServerStatusResponse response = SpongeStatusResponse.post(this.server, new SpongeStatusClient(this.networkManager));
-        if (response != null) {
-            this.networkManager.sendPacket(new S00PacketServerInfo(response));
-        } else {
-            this.networkManager.closeChannel(null);
-        }
+        SpongeStatusResponse.postAsync(this.server, this.networkManager);
     }
 
 }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.core.util;
+
+import net.minecraft.util.LongHashMap;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.common.interfaces.IMixinLongHashMap;
+import org.spongepowered.common.util.LongObjectHashMap;
+
+/**
+ * Stores the entries of every {@link LongHashMap} in a
+ * {@link LongObjectHashMap}, which doesn't box keys or allocate an entry per
+ * value. Most notably the loaded chunks of a world are kept in one.
+ */
+@NonnullByDefault
+@Mixin(LongHashMap.class)
+public abstract class MixinLongHashMap implements IMixinLongHashMap {
+
+    private final LongObjectHashMap<Object> map = new LongObjectHashMap<Object>(16);
+
+    @Override
+    public LongObjectHashMap<Object> getBackingMap() {
+        return this.map;
+    }
+
+    @Overwrite
+    public int getNumHashElements() {
+        return this.map.size();
+    }
+
+    @Overwrite
+    public Object getValueByKey(long key) {
+        return this.map.get(key);
+    }
+
+    @Overwrite
+    public boolean containsItem(long key) {
+        return this.map.containsKey(key);
+    }
+
+    @Overwrite
+    public void add(long key, Object value) {
+        this.map.put(key, value);
+    }
+
+    @Overwrite
+    public Object remove(long key) {
+        return this.map.remove(key);
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.core.world;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+import net.minecraft.world.chunk.storage.RegionFileCache;
+import net.minecraft.world.storage.IThreadedFileIO;
+import net.minecraft.world.storage.ThreadedFileIOBase;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.world.storage.ChunkIOThread;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@NonnullByDefault
+@Mixin(AnvilChunkLoader.class)
+public abstract class MixinAnvilChunkLoader implements IMixinAnvilChunkLoader {
+
+    @Shadow private Map<ChunkCoordIntPair, NBTTagCompound> chunksToRemove;
+    @Shadow private Object syncLockObject;
+    @Shadow private File chunkSaveLocation;
+
+    // Held while writing chunks, so a chunk is never written with older data after newer data
+    private final Object writeLock = new Object();
+
+    @Shadow
+    protected abstract Chunk checkedReadChunkFromNBT(World worldIn, int x, int z, NBTTagCompound compound);
+
+    @Override
+    public NBTTagCompound readChunkData(int x, int z) throws IOException {
+        ChunkCoordIntPair pos = new ChunkCoordIntPair(x, z);
+        synchronized (this.syncLockObject) {
+            // Chunks waiting to be written are newer than the region file
+            NBTTagCompound data = this.chunksToRemove.get(pos);
+            if (data != null) {
+                return data;
+            }
+        }
+
+        DataInputStream in = RegionFileCache.getChunkInputStream(this.chunkSaveLocation, x, z);
+        if (in == null) {
+            return null;
+        }
+        try {
+            return CompressedStreamTools.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public boolean chunkExists(int x, int z) throws IOException {
+        synchronized (this.syncLockObject) {
+            if (this.chunksToRemove.containsKey(new ChunkCoordIntPair(x, z))) {
+                return true;
+            }
+        }
+        // Don't create empty region files just to look into them
+        File regionFile = new File(new File(this.chunkSaveLocation, "region"), "r." + (x >> 5) + "." + (z >> 5) + ".mca");
+        return regionFile.exists() && RegionFileCache.createOrLoadRegionFile(this.chunkSaveLocation, x, z).isChunkSaved(x & 31, z & 31);
+    }
+
+    @Override
+    public Chunk readChunkFromData(World world, int x, int z, NBTTagCompound data) {
+        return checkedReadChunkFromNBT(world, x, z, data);
+    }
+
+    @Override
+    public int getPendingChunkCount() {
+        synchronized (this.syncLockObject) {
+            return this.chunksToRemove.size();
+        }
+    }
+
+    @Override
+    public void writePendingChunks() {
+        synchronized (this.writeLock) {
+            Map<ChunkCoordIntPair, NBTTagCompound> chunks;
+            synchronized (this.syncLockObject) {
+                if (this.chunksToRemove.isEmpty()) {
+                    return;
+                }
+                chunks = new HashMap<ChunkCoordIntPair, NBTTagCompound>(this.chunksToRemove);
+            }
+            ChunkIOThread.writeChunks(this, this.chunkSaveLocation, chunks);
+        }
+    }
+
+    @Override
+    public void onChunkWritten(ChunkCoordIntPair pos, NBTTagCompound data) {
+        synchronized (this.syncLockObject) {
+            if (this.chunksToRemove.get(pos) == data) {
+                this.chunksToRemove.remove(pos);
+            }
+        }
+    }
+
+    @Redirect(method = "addChunkToPending", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/storage/ThreadedFileIOBase;queueIO(Lnet/minecraft/world/storage/IThreadedFileIO;)V"))
+    public void onQueueIO(ThreadedFileIOBase fileIO, IThreadedFileIO threadedFileIO) {
+        // Written by the Sponge chunk I/O thread instead
+        ChunkIOThread thread = ChunkIOThread.getInstance();
+        thread.queue(this);
+        MinecraftServer server = MinecraftServer.getServer();
+        thread.awaitCapacity(this, server == null || server.isCallingFromMinecraftThread());
+    }
+
+    @Inject(method = "writeNextIO", at = @At("HEAD"), cancellable = true)
+    public void onWriteNextIO(CallbackInfoReturnable<Boolean> cir) {
+        // Callers such as saveExtraData write all pending chunks, do that in one batch
+        writePendingChunks();
+        cir.setReturnValue(false);
+    }
+
+}
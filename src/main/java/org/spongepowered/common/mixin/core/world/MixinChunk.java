@@ -32,12 +32,14 @@
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.BlockPos;
+import net.minecraft.util.ClassInheritanceMultiMap;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import org.spongepowered.api.block.BlockState;
@@ -48,6 +50,7 @@
 import org.spongepowered.api.util.PositionOutOfBoundsException;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.util.gen.BiomeBuffer;
+import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
 import org.spongepowered.api.world.Chunk;
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.gen.GeneratorPopulator;
@@ -55,15 +58,20 @@
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.data.SpongeBlockProcessor;
 import org.spongepowered.common.data.SpongeManipulatorRegistry;
+import org.spongepowered.common.entity.ChunkEntityLimits;
+import org.spongepowered.common.interfaces.IMixinChunk;
 import org.spongepowered.common.interfaces.IMixinWorld;
 import org.spongepowered.common.interfaces.block.IMixinBlock;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.VecHelper;
 import org.spongepowered.common.util.gen.FastChunkBuffer;
 import org.spongepowered.common.util.gen.ObjectArrayMutableBiomeBuffer;
+import org.spongepowered.common.util.gen.SectionArrayImmutableChunkBuffer;
+import org.spongepowered.common.world.gen.ChunkGenerationPipeline;
 import org.spongepowered.common.world.storage.SpongeChunkLayout;
 
 import java.util.Collection;
@@ -71,7 +79,7 @@
 
 @NonnullByDefault
 @Mixin(net.minecraft.world.chunk.Chunk.class)
-public abstract class MixinChunk implements Chunk {
+public abstract class MixinChunk implements Chunk, IMixinChunk {
 
     private static final Vector2i BIOME_SIZE = SpongeChunkLayout.CHUNK_SIZE.toVector2(true);
     private Vector3i chunkPos;
@@ -80,6 +88,10 @@ public abstract class MixinChunk implements Chunk {
     private Vector2i biomeMin;
     private Vector2i biomeMax;
     private ChunkCoordIntPair chunkCoordIntPair;
+    private final int[] entityCounts = new int[ChunkEntityLimits.CATEGORY_COUNT];
+    private int entityCount;
+    private long lastEntityCountWarning;
+    private int sharedSections;
 
     @Shadow private net.minecraft.world.World worldObj;
     @Shadow public int xPosition;
@@ -99,6 +111,9 @@ public abstract class MixinChunk implements Chunk {
     @Shadow
     public abstract byte[] getBiomeArray();
 
+    @Shadow
+    public abstract ExtendedBlockStorage[] getBlockStorageArray();
+
     @Shadow
     public abstract void setBiomeArray(byte[] biomeArray);
 
@@ -122,7 +137,7 @@ public void onNewlyGenerated(World world, ChunkPrimer primer, int chunkX, int ch
         // of IChunkProvider provided by mods will very likely still work well
 
         List<GeneratorPopulator> populators = ((IMixinWorld) world).getGeneratorPopulators();
-        if (!populators.isEmpty()) {
+        if (!populators.isEmpty() && !ChunkGenerationPipeline.deferGeneratorPopulators((net.minecraft.world.chunk.Chunk) (Object) this)) {
             FastChunkBuffer buffer = new FastChunkBuffer((net.minecraft.world.chunk.Chunk) (Object) this);
             BiomeGenBase[] biomeArray = world.getWorldChunkManager().getBiomeGenAt(null, chunkX * 16, chunkZ * 16, 16, 16, true);
             BiomeBuffer biomes = new ObjectArrayMutableBiomeBuffer(biomeArray, new Vector2i(chunkX * 16, chunkZ * 16), new Vector2i(16, 16));
@@ -133,6 +148,80 @@ public void onNewlyGenerated(World world, ChunkPrimer primer, int chunkX, int ch
         }
     }
 
+    @Redirect(method = "addEntity", at = @At(value = "INVOKE", target = "Lnet/minecraft/util/ClassInheritanceMultiMap;add(Ljava/lang/Object;)Z"))
+    public boolean onAddEntity(ClassInheritanceMultiMap entities, Object entity) {
+        boolean added = entities.add(entity);
+        if (added) {
+            this.entityCounts[ChunkEntityLimits.getCategory((net.minecraft.entity.Entity) entity)]++;
+            this.entityCount++;
+        }
+        return added;
+    }
+
+    @Redirect(method = "removeEntityAtIndex", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/util/ClassInheritanceMultiMap;remove(Ljava/lang/Object;)Z"))
+    public boolean onRemoveEntity(ClassInheritanceMultiMap entities, Object entity) {
+        boolean removed = entities.remove(entity);
+        if (removed) {
+            this.entityCounts[ChunkEntityLimits.getCategory((net.minecraft.entity.Entity) entity)]--;
+            this.entityCount--;
+        }
+        return removed;
+    }
+
+    @Override
+    public int getEntityCount(int category) {
+        return this.entityCounts[category];
+    }
+
+    @Override
+    public int getEntityCount() {
+        return this.entityCount;
+    }
+
+    @Override
+    public long getLastEntityCountWarning() {
+        return this.lastEntityCountWarning;
+    }
+
+    @Override
+    public void setLastEntityCountWarning(long time) {
+        this.lastEntityCountWarning = time;
+    }
+
+    @Override
+    public ImmutableBlockBuffer getSnapshot() {
+        ExtendedBlockStorage[] sections = getBlockStorageArray();
+        char[][] data = new char[sections.length][];
+        for (int i = 0; i < sections.length; i++) {
+            if (sections[i] != null && !sections[i].isEmpty()) {
+                data[i] = sections[i].getData();
+                this.sharedSections |= 1 << i;
+            }
+        }
+        return new SectionArrayImmutableChunkBuffer(data, this.xPosition, this.zPosition);
+    }
+
+    @Override
+    public void unshareSection(int sectionY) {
+        if ((this.sharedSections & 1 << sectionY) == 0) {
+            return;
+        }
+        ExtendedBlockStorage section = getBlockStorageArray()[sectionY];
+        if (section != null) {
+            // Snapshots keep reading the old array
+            section.setData(section.getData().clone());
+        }
+        this.sharedSections &= ~(1 << sectionY);
+    }
+
+    @Redirect(method = "setBlockState", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/storage/ExtendedBlockStorage;set(IIILnet/minecraft/block/state/IBlockState;)V"))
+    public void onSetSectionBlockState(ExtendedBlockStorage section, int x, int y, int z, IBlockState state) {
+        unshareSection(section.getYLocation() >> 4);
+        section.set(x, y, z, state);
+    }
+
     @SideOnly(Side.SERVER)
     @Inject(method = "onChunkLoad()V", at = @At("RETURN"))
     public void onChunkLoadInject(CallbackInfo ci) {
@@ -0,0 +1,144 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.core.world;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.interfaces.IMixinLongHashMap;
+import org.spongepowered.common.util.LongObjectHashMap;
+
+import java.util.List;
+import java.util.Set;
+
+@NonnullByDefault
+@Mixin(ChunkProviderServer.class)
+public abstract class MixinChunkProviderServer implements IMixinChunkProviderServer {
+
+    @Shadow private Set<Long> droppedChunksSet;
+    @Shadow private IChunkProvider serverChunkGenerator;
+    @Shadow private IChunkLoader chunkLoader;
+    @Shadow private LongHashMap id2ChunkMap;
+    @Shadow public List<Chunk> loadedChunks;
+    @Shadow public WorldServer worldObj;
+
+    @Shadow
+    private void saveChunkData(Chunk chunk) {
+    }
+
+    @Shadow
+    private void saveChunkExtraData(Chunk chunk) {
+    }
+
+    @Override
+    public IChunkLoader getChunkLoader() {
+        return this.chunkLoader;
+    }
+
+    @Override
+    public boolean saveChunk(Chunk chunk) {
+        if (!chunk.needsSaving(true)) {
+            return false;
+        }
+        saveChunkData(chunk);
+        chunk.setModified(false);
+        return true;
+    }
+
+    @Override
+    public Chunk loadChunkFromData(int x, int z, NBTTagCompound data) {
+        if (!(this.chunkLoader instanceof IMixinAnvilChunkLoader)) {
+            return null;
+        }
+        Chunk chunk = ((IMixinAnvilChunkLoader) this.chunkLoader).readChunkFromData(this.worldObj, x, z, data);
+        if (chunk == null) {
+            return null;
+        }
+
+        // Same as the tail of loadChunk and loadChunkFromFile
+        long key = ChunkCoordIntPair.chunkXZ2Int(x, z);
+        this.droppedChunksSet.remove(key);
+        chunk.setLastSaveTime(this.worldObj.getTotalWorldTime());
+        if (this.serverChunkGenerator != null) {
+            this.serverChunkGenerator.recreateStructures(chunk, x, z);
+        }
+        this.id2ChunkMap.add(key, chunk);
+        this.loadedChunks.add(chunk);
+        chunk.onChunkLoad();
+        chunk.populateChunk((IChunkProvider) this, (IChunkProvider) this, x, z);
+        return chunk;
+    }
+
+    @Override
+    public Chunk generateChunk(int x, int z) {
+        return this.serverChunkGenerator.provideChunk(x, z);
+    }
+
+    @Override
+    public void addGeneratedChunk(Chunk chunk) {
+        // Same as the tail of loadChunk
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+        this.droppedChunksSet.remove(key);
+        this.id2ChunkMap.add(key, chunk);
+        this.loadedChunks.add(chunk);
+        chunk.onChunkLoad();
+        chunk.populateChunk((IChunkProvider) this, (IChunkProvider) this, chunk.xPosition, chunk.zPosition);
+    }
+
+    @Override
+    public void unloadChunk(Chunk chunk) {
+        // Same as the body of unloadQueuedChunks
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+        chunk.onChunkUnload();
+        saveChunkData(chunk);
+        saveChunkExtraData(chunk);
+        this.id2ChunkMap.remove(key);
+        this.loadedChunks.remove(chunk);
+        this.droppedChunksSet.remove(key);
+    }
+
+    @Override
+    public Chunk getLoadedChunk(int x, int z) {
+        return (Chunk) this.id2ChunkMap.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(x, z));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public LongObjectHashMap<Chunk> getLoadedChunkMap() {
+        // The map of id2ChunkMap only ever holds chunks
+        return (LongObjectHashMap<Chunk>) (LongObjectHashMap<?>) ((IMixinLongHashMap) this.id2ChunkMap).getBackingMap();
+    }
+
+}
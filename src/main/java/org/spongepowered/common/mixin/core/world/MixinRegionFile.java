@@ -0,0 +1,152 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.core.world;
+
+import net.minecraft.world.chunk.storage.RegionFile;
+import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.common.interfaces.IMixinRegionFile;
+import org.spongepowered.common.world.storage.ChunkIOCounters;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+@NonnullByDefault
+@Mixin(RegionFile.class)
+public abstract class MixinRegionFile implements IMixinRegionFile {
+
+    private static final int SECTOR_SIZE = 4096;
+
+    @Shadow private RandomAccessFile dataFile;
+    @Shadow private List<Boolean> sectorFree;
+
+    // Read-only mapping of the file, extended when a chunk lies past its end. Guarded by this.
+    @Nullable private MappedByteBuffer mapping;
+
+    @Shadow
+    private boolean outOfBounds(int x, int z) {
+        return false;
+    }
+
+    @Shadow
+    private int getOffset(int x, int z) {
+        return 0;
+    }
+
+    @Shadow
+    protected abstract void write(int x, int z, byte[] data, int length);
+
+    /**
+     * Reads the data of a chunk through a memory mapping of the file. The
+     * sector table is already kept in memory by the region file, so reading
+     * a chunk only copies its bytes out of the mapping. Decompression happens
+     * when the returned stream is read, outside of the lock.
+     */
+    @Overwrite
+    @Nullable
+    public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
+        if (outOfBounds(x, z)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            int offset = getOffset(x, z);
+            if (offset == 0) {
+                return null;
+            }
+            int sector = offset >> 8;
+            int count = offset & 255;
+            if (sector + count > this.sectorFree.size()) {
+                return null;
+            }
+
+            long end = (long) (sector + count) * SECTOR_SIZE;
+            if (this.mapping == null || this.mapping.capacity() < end) {
+                FileChannel channel = this.dataFile.getChannel();
+                if (channel.size() < end) {
+                    return null;
+                }
+                this.mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            ByteBuffer buffer = this.mapping.duplicate();
+            buffer.position(sector * SECTOR_SIZE);
+            int length = buffer.getInt();
+            if (length <= 0 || length > SECTOR_SIZE * count) {
+                return null;
+            }
+            byte version = buffer.get();
+            byte[] data = new byte[length - 1];
+            buffer.get(data);
+            ChunkIOCounters.getInstance().recordRead(System.nanoTime() - start);
+
+            if (version == 1) {
+                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))));
+            } else if (version == 2) {
+                return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(data))));
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized int getSector(int x, int z) {
+        int offset = getOffset(x, z);
+        return offset == 0 ? Integer.MAX_VALUE : offset >> 8;
+    }
+
+    @Override
+    public void writeChunk(int x, int z, byte[] data, int length) throws IOException {
+        write(x, z, data, length);
+    }
+
+    @Inject(method = "close", at = @At("HEAD"))
+    public void onClose(CallbackInfo ci) {
+        synchronized (this) {
+            this.mapping = null;
+        }
+    }
+
+}
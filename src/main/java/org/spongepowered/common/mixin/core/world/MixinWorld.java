@@ -34,10 +34,13 @@
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.network.Packet;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.management.ServerConfigurationManager;
+import net.minecraft.util.AxisAlignedBB;
 import net.minecraft.util.BlockPos;
 import net.minecraft.world.WorldProvider;
 import net.minecraft.world.WorldServer;
@@ -45,7 +48,6 @@
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.chunk.IChunkProvider;
-import net.minecraft.world.gen.ChunkProviderServer;
 import net.minecraft.world.storage.WorldInfo;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
@@ -64,6 +66,8 @@
 import org.spongepowered.api.service.permission.context.Context;
 import org.spongepowered.api.util.PositionOutOfBoundsException;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
+import org.spongepowered.api.util.gen.BlockBuffer;
+import org.spongepowered.api.util.gen.MutableBlockBuffer;
 import org.spongepowered.api.world.Chunk;
 import org.spongepowered.api.world.Dimension;
 import org.spongepowered.api.world.Location;
@@ -81,20 +85,29 @@
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.common.Sponge;
 import org.spongepowered.common.configuration.SpongeConfig;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
 import org.spongepowered.common.data.SpongeBlockProcessor;
 import org.spongepowered.common.data.SpongeManipulatorRegistry;
 import org.spongepowered.common.effect.particle.SpongeParticleEffect;
 import org.spongepowered.common.effect.particle.SpongeParticleHelper;
+import org.spongepowered.common.entity.EntityActivationRange;
+import org.spongepowered.common.entity.EntityQueries;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.interfaces.IMixinEntity;
 import org.spongepowered.common.interfaces.IMixinWorld;
 import org.spongepowered.common.interfaces.IMixinWorldSettings;
 import org.spongepowered.common.interfaces.IMixinWorldType;
 import org.spongepowered.common.interfaces.block.IMixinBlock;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.CachedBlockAccess;
+import org.spongepowered.common.world.WorldBlockBuffers;
 import org.spongepowered.common.world.gen.SpongeWorldGenerator;
+import org.spongepowered.common.world.storage.AsyncChunkLoader;
 import org.spongepowered.common.world.storage.SpongeChunkLayout;
 
 import java.util.ArrayList;
@@ -117,9 +130,17 @@ public abstract class MixinWorld implements World, IMixinWorld {
     // TODO: what am I?
     private long weatherStartTime;
     public SpongeConfig<SpongeConfig.WorldConfig> worldConfig;
+    private volatile SpongeConfigSnapshot activeConfig;
     private volatile Context worldContext;
     private ImmutableList<Populator> populators;
     private ImmutableList<GeneratorPopulator> generatorPopulators;
+    private AsyncChunkLoader asyncChunkLoader;
+    private CachedBlockAccess blockAccess;
+    protected boolean activationRangeEnabled;
+    private int activeEntities;
+    private int inactiveEntities;
+    private int lastActiveEntities;
+    private int lastInactiveEntities;
 
     @Shadow public WorldProvider provider;
     @Shadow protected WorldInfo worldInfo;
@@ -172,6 +193,41 @@ public void onGetCollidingBoundingBoxes(net.minecraft.entity.Entity entity, net.
         }
     }
 
+    @Inject(method = "updateEntityWithOptionalForce", at = @At("HEAD"), cancellable = true)
+    public void onUpdateEntityWithOptionalForce(net.minecraft.entity.Entity entity, boolean forceUpdate, CallbackInfo ci) {
+        if (!forceUpdate || !this.activationRangeEnabled) {
+            return;
+        }
+        if (EntityActivationRange.checkIfActive(entity)) {
+            this.activeEntities++;
+        } else {
+            this.inactiveEntities++;
+            entity.ticksExisted++;
+            ((IMixinEntity) entity).inactiveTick();
+            ci.cancel();
+        }
+    }
+
+    /**
+     * Starts counting the active and inactive entities of a new tick.
+     */
+    protected void resetEntityActivationCounters() {
+        this.lastActiveEntities = this.activeEntities;
+        this.lastInactiveEntities = this.inactiveEntities;
+        this.activeEntities = 0;
+        this.inactiveEntities = 0;
+    }
+
+    @Override
+    public int getActiveEntityCount() {
+        return this.lastActiveEntities;
+    }
+
+    @Override
+    public int getInactiveEntityCount() {
+        return this.lastInactiveEntities;
+    }
+
     @Override
     public float getTemperature(Vector3i position) {
         return getTemperature(position.getX(), position.getY(), position.getZ());
@@ -179,8 +235,7 @@ public float getTemperature(Vector3i position) {
 
     @Override
     public float getTemperature(int x, int y, int z) {
-        BlockPos pos = new BlockPos(x, y, z);
-        return getBiomeGenForCoords(pos).getFloatTemperature(pos);
+        return getBlockAccess().getTemperature(x, y, z);
     }
 
     @Override
@@ -204,11 +259,7 @@ public Optional<Chunk> getChunk(int x, int y, int z) {
             return Optional.absent();
         }
         WorldServer worldserver = (WorldServer) (Object) this;
-        net.minecraft.world.chunk.Chunk chunk = null;
-        if (worldserver.theChunkProviderServer.chunkExists(x, z)) {
-            chunk = worldserver.theChunkProviderServer.provideChunk(x, z);
-        }
-        return Optional.fromNullable((Chunk) chunk);
+        return Optional.fromNullable((Chunk) ((IMixinChunkProviderServer) worldserver.theChunkProviderServer).getLoadedChunk(x, z));
     }
 
     @Override
@@ -222,24 +273,52 @@ public Optional<Chunk> loadChunk(int x, int y, int z, boolean shouldGenerate) {
             return Optional.absent();
         }
         WorldServer worldserver = (WorldServer) (Object) this;
-        net.minecraft.world.chunk.Chunk chunk = null;
-        if (worldserver.theChunkProviderServer.chunkExists(x, z) || shouldGenerate) {
+        net.minecraft.world.chunk.Chunk chunk = ((IMixinChunkProviderServer) worldserver.theChunkProviderServer).getLoadedChunk(x, z);
+        if (chunk == null && shouldGenerate) {
             chunk = worldserver.theChunkProviderServer.loadChunk(x, z);
         }
         return Optional.fromNullable((Chunk) chunk);
     }
 
+    @Override
+    public ListenableFuture<Optional<Chunk>> loadChunkAsync(Vector3i position, boolean generate) {
+        if (!SpongeChunkLayout.instance.isValidChunk(position)) {
+            return Futures.immediateFuture(Optional.<Chunk>absent());
+        }
+        return getAsyncChunkLoader().loadChunk(position.getX(), position.getZ(), generate);
+    }
+
+    @Override
+    public void integrateLoadedChunks() {
+        if (this.asyncChunkLoader != null) {
+            this.asyncChunkLoader.integrateLoadedChunks();
+        }
+    }
+
+    private CachedBlockAccess getBlockAccess() {
+        if (this.blockAccess == null) {
+            this.blockAccess = new CachedBlockAccess((net.minecraft.world.World) (Object) this);
+        }
+        return this.blockAccess;
+    }
+
+    private synchronized AsyncChunkLoader getAsyncChunkLoader() {
+        if (this.asyncChunkLoader == null) {
+            this.asyncChunkLoader = new AsyncChunkLoader((WorldServer) (Object) this);
+        }
+        return this.asyncChunkLoader;
+    }
+
     @Override
     public BlockState getBlock(int x, int y, int z) {
         checkBlockBounds(x, y, z);
-        return (BlockState) getBlockState(new BlockPos(x, y, z));
+        return (BlockState) getBlockAccess().getBlockState(x, y, z);
     }
 
     @Override
     public BlockType getBlockType(int x, int y, int z) {
         checkBlockBounds(x, y, z);
-        // avoid intermediate object creation from using BlockState
-        return (BlockType) getChunkFromChunkCoords(x >> 4, z >> 4).getBlock(x, y, z);
+        return (BlockType) getBlockAccess().getBlockState(x, y, z).getBlock();
     }
 
     @Override
@@ -251,7 +330,7 @@ public void setBlock(int x, int y, int z, BlockState block) {
     @Override
     public BiomeType getBiome(int x, int z) {
         checkBiomeBounds(x, z);
-        return (BiomeType) this.getBiomeGenForCoords(new BlockPos(x, 0, z));
+        return (BiomeType) getBlockAccess().getBiome(x, z);
     }
 
     @Override
@@ -278,6 +357,26 @@ public Collection<Entity> getEntities(Predicate<Entity> filter) {
                 (Predicate<net.minecraft.entity.Entity>) (Object) filter);
     }
 
+    @Override
+    public <T extends Entity> Collection<T> getEntities(AxisAlignedBB box, Class<T> type, Predicate<? super T> filter) {
+        return EntityQueries.getEntities((net.minecraft.world.World) (Object) this, box, type, filter);
+    }
+
+    @Override
+    public Collection<Entity> getNearbyEntities(Vector3d position, double radius) {
+        return EntityQueries.getNearbyEntities((net.minecraft.world.World) (Object) this, position, radius);
+    }
+
+    @Override
+    public MutableBlockBuffer getBlockBuffer(Vector3i min, Vector3i max) {
+        return WorldBlockBuffers.read((net.minecraft.world.World) (Object) this, min, max);
+    }
+
+    @Override
+    public void setBlocks(BlockBuffer buffer, int flags) {
+        WorldBlockBuffers.write((net.minecraft.world.World) (Object) this, buffer, flags);
+    }
+
     @Override
     public Optional<Entity> createEntity(EntityType type, Vector3d position) {
         checkNotNull(type, "The entity type cannot be null!");
@@ -433,6 +532,19 @@ public SpongeConfig<SpongeConfig.WorldConfig> getWorldConfig() {
         return this.worldConfig;
     }
 
+    @Override
+    public SpongeConfigSnapshot getActiveConfig() {
+        SpongeConfigSnapshot snapshot = this.activeConfig;
+        int version = SpongeConfig.getVersion();
+        if (snapshot == null || snapshot.getVersion() != version) {
+            // The version is read before resolving, so a config reloaded
+            // while the snapshot is taken invalidates it again
+            snapshot = new SpongeConfigSnapshot(SpongeHooks.getActiveConfig((net.minecraft.world.World) (Object) this), version);
+            this.activeConfig = snapshot;
+        }
+        return snapshot;
+    }
+
     @Override
     public void playSound(SoundType sound, Vector3d position, double volume) {
         this.playSound(sound, position, volume, 1);
@@ -462,10 +574,11 @@ public Optional<Entity> getEntity(UUID uuid) {
         return Optional.absent();
     }
 
-    @SuppressWarnings("unchecked")
+    @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public Iterable<Chunk> getLoadedChunks() {
-        return ((ChunkProviderServer) this.getChunkProvider()).loadedChunks;
+        // A read-only copy that is reused until a chunk is loaded or unloaded
+        return (Iterable) ((IMixinChunkProviderServer) this.getChunkProvider()).getLoadedChunkMap().values();
     }
 
     @Override
@@ -617,7 +730,7 @@ public <T extends DataManipulator<T>> DataTransactionResult offer(int x, int y,
     @Override
     public Collection<DataManipulator<?>> getManipulators(int x, int y, int z) {
         final BlockPos blockPos = new BlockPos(x, y, z);
-        return ((IMixinBlock) getBlock(x, y, z).getType()).getManipulators((net.minecraft.world.World) ((Object) this), blockPos);
+        return ((IMixinBlock) getBlockType(x, y, z)).getManipulators((net.minecraft.world.World) ((Object) this), blockPos);
     }
 
     @Override
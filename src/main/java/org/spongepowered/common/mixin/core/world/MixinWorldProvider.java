@@ -120,6 +120,7 @@ public DimensionType getType() {
     @Override
     public void setDimensionConfig(SpongeConfig<SpongeConfig.DimensionConfig> config) {
         this.dimensionConfig = config;
+        SpongeConfig.invalidateSnapshots();
     }
 
     @Override
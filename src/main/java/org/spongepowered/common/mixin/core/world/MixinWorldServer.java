@@ -24,24 +24,34 @@
  */
 package org.spongepowered.common.mixin.core.world;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.BlockPos;
+import net.minecraft.util.IProgressUpdate;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.WorldSettings;
+import net.minecraft.world.chunk.IChunkProvider;
 import org.spongepowered.api.util.annotation.NonnullByDefault;
 import org.spongepowered.api.world.GeneratorType;
 import org.spongepowered.api.world.GeneratorTypes;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.entity.ChunkEntityLimits;
+import org.spongepowered.common.entity.EntityActivationRange;
 import org.spongepowered.common.interfaces.IMixinWorld;
+import org.spongepowered.common.world.gen.WorldPregenerator;
+import org.spongepowered.common.world.storage.IncrementalChunkSaver;
 
 @NonnullByDefault
 @Mixin(WorldServer.class)
 public abstract class MixinWorldServer extends MixinWorld {
 
+    private IncrementalChunkSaver chunkSaver;
+
     @Inject(method = "createSpawnPosition(Lnet/minecraft/world/WorldSettings;)V", at = @At("HEAD"), cancellable = true)
     public void onCreateSpawnPosition(WorldSettings settings, CallbackInfo ci) {
         GeneratorType generatorType = (GeneratorType) settings.getTerrainType();
@@ -51,11 +61,64 @@ public void onCreateSpawnPosition(WorldSettings settings, CallbackInfo ci) {
         }
     }
 
+    @Inject(method = "tick", at = @At("HEAD"))
+    public void onTick(CallbackInfo ci) {
+        integrateLoadedChunks();
+        if (this.chunkSaver != null) {
+            this.chunkSaver.tick();
+        }
+        WorldPregenerator.getInstance().tick((WorldServer) (Object) this);
+        ChunkEntityLimits.checkChunks((WorldServer) (Object) this);
+    }
+
+    @Inject(method = "updateEntities", at = @At("HEAD"))
+    public void onUpdateEntities(CallbackInfo ci) {
+        resetEntityActivationCounters();
+        this.activationRangeEnabled = EntityActivationRange.isEnabled();
+        if (this.activationRangeEnabled) {
+            EntityActivationRange.activateEntities((WorldServer) (Object) this);
+        }
+    }
+
+    @Redirect(method = "saveAllChunks", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/IChunkProvider;saveChunks(ZLnet/minecraft/util/IProgressUpdate;)Z"))
+    public boolean onSaveChunks(IChunkProvider chunkProvider, boolean saveAll, IProgressUpdate progress) {
+        WorldServer world = (WorldServer) (Object) this;
+        // Saves while the server is stopping have to be complete
+        if (saveAll && progress == null && MinecraftServer.getServer().isServerRunning() && IncrementalChunkSaver.isEnabled(world)) {
+            if (this.chunkSaver == null) {
+                this.chunkSaver = new IncrementalChunkSaver(world);
+            }
+            this.chunkSaver.start();
+            return true;
+        }
+        finishIncrementalSave();
+        return chunkProvider.saveChunks(saveAll, progress);
+    }
+
+    @Inject(method = "saveChunkData", at = @At("HEAD"))
+    public void onSaveChunkData(CallbackInfo ci) {
+        finishIncrementalSave();
+    }
+
+    @Inject(method = "flush", at = @At("HEAD"))
+    public void onFlush(CallbackInfo ci) {
+        finishIncrementalSave();
+        WorldPregenerator.getInstance().save((WorldServer) (Object) this);
+    }
+
+    private void finishIncrementalSave() {
+        if (this.chunkSaver != null) {
+            this.chunkSaver.finish();
+        }
+    }
+
     @Inject(method = "init", at = @At("RETURN"))
     public void onPostInit(CallbackInfoReturnable<World> ci) {
         // Run the world generator modifiers in the init method
         // (the "init" method, not the "<init>" constructor)
         IMixinWorld world = (IMixinWorld) ci.getReturnValue();
         world.updateWorldGenerator();
+        WorldPregenerator.getInstance().resume((WorldServer) ci.getReturnValue());
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.rcon;
+
+import com.google.common.util.concurrent.FutureCallback;
+import org.spongepowered.common.interfaces.IMixinRConThreadClient;
+
+/**
+ * Answers an RCON login request once its login event was posted on the
+ * asynchronous event bus. A failed post refuses the login.
+ */
+public final class RconLoginCallback implements FutureCallback<Boolean> {
+
+    private final IMixinRConThreadClient client;
+    private final int requestId;
+
+    public RconLoginCallback(IMixinRConThreadClient client, int requestId) {
+        this.client = client;
+        this.requestId = requestId;
+    }
+
+    @Override
+    public void onSuccess(Boolean cancelled) {
+        this.client.completeLogin(this.requestId, cancelled);
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+        this.client.completeLogin(this.requestId, true);
+    }
+
+}
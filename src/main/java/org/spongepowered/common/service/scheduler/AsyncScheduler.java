@@ -24,17 +24,21 @@
  */
 package org.spongepowered.common.service.scheduler;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.base.Optional;
+import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.service.scheduler.AsynchronousScheduler;
 import org.spongepowered.api.service.scheduler.Task;
 import org.spongepowered.common.Sponge;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -50,8 +54,9 @@
  * {@link org.spongepowered.api.service.scheduler.SynchronousScheduler}. They
  * have the same kind of API signature and operate with the same kind of Tasks.
  * The exceptional difference between the SyncScheduler and this Asynchronous
- * Scheduler is that this Scheduler will base timing of Tasks on wall-clock
- * time. The wall-clock time is used to determine when to run a Task.
+ * Scheduler is that this Scheduler will base timing of Tasks on real time.
+ * The monotonic {@link System#nanoTime()} clock is used to determine when to
+ * run a Task.
  * </p>
  *
  * <p>
@@ -71,9 +76,8 @@
  * {@link AsyncScheduler} implements {@link AsynchronousScheduler} interface and
  * uses milliseconds as the time unit. Tasks created with parameters (if any)
  * that involve delays and periods based on milliseconds and relative to the
- * wall-clock of the host system. Caveat: the wall-clock time is used for
- * measuring elapsed time, but the actual date/time of the host system or
- * changes to the host date/time will not affect the scheduling of Tasks.
+ * monotonic clock of the host system. The actual date/time of the host system
+ * or changes to the host date/time will not affect the scheduling of Tasks.
  * Because the AsyncScheduler is running its own thread all tasks that execute
  * from this scheduler are not synchronous with the game data. In other-words,
  * the Tasks that are executed by the AsyncScheduler are not thread-safe with
@@ -98,19 +102,30 @@ public class AsyncScheduler implements AsynchronousScheduler {
 
     // The simple private map of all pending (and running) ScheduledTasks
     private final Map<UUID, ScheduledTask> taskMap = new ConcurrentHashMap<UUID, ScheduledTask>();
-    // Adjustable timeout for pending Tasks
-    private long minimumTimeout = Long.MAX_VALUE;
-    private long lastProcessingTimestamp;
+    // The waiting tasks ordered by the time they are due next, guarded by the lock.
+    // Ties are broken by the unique id so the set never drops a task.
+    private final NavigableSet<ScheduledTask> taskQueue = new TreeSet<ScheduledTask>(new Comparator<ScheduledTask>() {
+
+        @Override
+        public int compare(ScheduledTask o1, ScheduledTask o2) {
+            if (o1.nextRunNanos != o2.nextRunNanos) {
+                // Compare the difference, System.nanoTime() may overflow
+                return o1.nextRunNanos - o2.nextRunNanos < 0 ? -1 : 1;
+            }
+            return o1.getUniqueId().compareTo(o2.getUniqueId());
+        }
+    });
     // Locking mechanism
     private final Lock lock = new ReentrantLock();
     private final Condition condition = this.lock.newCondition();
-    // The dynamic thread pooling executor of asynchronous tasks.
-    private ExecutorService executor;
+    // The bounded thread pools that run the bodies of asynchronous tasks.
+    private final AsyncTaskExecutor executor;
     // Query actor for task information
     private SchedulerHelper schedulerHelper;
 
     private AsyncScheduler() {
         this.schedulerHelper = new SchedulerHelper(ScheduledTask.TaskSynchroncity.ASYNCHRONOUS);
+        this.executor = new AsyncTaskExecutor(Sponge.getGlobalConfig().getConfig().getScheduler());
 
         new Thread(new Runnable() {
 
@@ -122,11 +137,8 @@ public void run() {
     }
 
     private void stateMachineBody() {
-        this.executor = Executors.newCachedThreadPool();
-        this.lastProcessingTimestamp = System.currentTimeMillis();
         while (true) {
-            recalibrateMinimumTimeout();
-            processTasks();
+            processTask(takeDueTask());
         }
     }
 
@@ -156,115 +168,65 @@ public static AsynchronousScheduler getInstance() {
         return AsynchronousSchedulerSingletonHolder.INSTANCE;
     }
 
-    private void recalibrateMinimumTimeout() {
+    void onTaskCanceled(ScheduledTask task) {
         this.lock.lock();
         try {
-            for (ScheduledTask task : this.taskMap.values()) {
-                // Tasks may have dropped off the list.
-                // Whatever Tasks remain, recalibrate:
-                //
-                // Recalibrate the wait delay for processing tasks before new tasks
-                // cause the scheduler to process pending tasks.
-                this.minimumTimeout = Long.MAX_VALUE;
-                if (task.offset == 0 && task.period == 0) {
-                    this.minimumTimeout = 0;
-                } else if (task.offset > 0 && task.period == 0) {
-                    // task with non-zero offset, zero period
-                    this.minimumTimeout = Math.min(task.offset, this.minimumTimeout);
-                } else if (task.offset == 0 && task.period > 0) {
-                    // task with zero offset, non-zero period
-                    this.minimumTimeout = Math.min(task.period, this.minimumTimeout);
-                } else if (task.offset > 0 && task.period > 0) {
-                    // task with non-zero offset, non-zero period
-                    this.minimumTimeout = Math.min(task.offset, this.minimumTimeout);
-                    this.minimumTimeout = Math.min(task.period, this.minimumTimeout);
-                }
-            }
-
-            // If no tasks remain, recalibrate to max timeout
-            if (this.taskMap.isEmpty()) {
-                this.minimumTimeout = Long.MAX_VALUE;
-            } else {
-                long latency = System.currentTimeMillis() - this.lastProcessingTimestamp;
-                this.minimumTimeout -= (latency <= 0) ? 0 : latency;
-                this.minimumTimeout = (this.minimumTimeout < 0) ? 0 : this.minimumTimeout;
-            }
+            this.taskQueue.remove(task);
+            this.schedulerHelper.removeTask(this.taskMap, task);
         } finally {
             this.lock.unlock();
         }
     }
 
-    private void processTasks() {
+    // Sleeps until the earliest task is due (or a new task becomes the earliest)
+    // and takes that task from the queue.
+    private ScheduledTask takeDueTask() {
         this.lock.lock();
         try {
-            try {
-                this.condition.await(this.minimumTimeout, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                // The taskMap has been modified; there is work to do.
-                // Continue on without handling the Exception.
-            } catch (IllegalMonitorStateException e) {
-                Sponge.getLogger().error(SchedulerLogMessages.CATASTROPHIC_ERROR_IN_SCHEDULER_SEEK_HELP);
-                Sponge.getLogger().error(e.toString());
-            }
-
-            // We've locked down the taskMap but the lock is short lived if the size of the
-            // size of the list is zero.
-            //
-            // For each task, inspect the state.
-            //
-            // For the state of CANCELED, remove it and look at the next task, if any.
-            //
-            // For the state of WAITING, the task has not begun, so check the
-            // offset time before starting that task for the first time.
-            //
-            // Else if the task is already RUNNING, use the period (the time delay until
-            // the next moment to run the task).
-            //
-            for (ScheduledTask task : this.taskMap.values()) {
-                // If the task is now slated to be canceled, we just remove it as if it no longer exists.
-                if (task.state == ScheduledTask.ScheduledTaskState.CANCELED) {
-                    this.taskMap.remove(task.getUniqueId());
+            while (true) {
+                if (this.taskQueue.isEmpty()) {
+                    this.condition.awaitUninterruptibly();
                     continue;
                 }
 
-                long threshold = Long.MAX_VALUE;
-
-                // Figure out if we start a delayed Task after threshold milliseconds or,
-                // start it after the interval (period) of the repeating task parameter.
-                if (task.state == ScheduledTask.ScheduledTaskState.WAITING) {
-                    threshold = task.offset;
-                } else if (task.state == ScheduledTask.ScheduledTaskState.RUNNING) {
-                    threshold = task.period;
+                ScheduledTask task = this.taskQueue.first();
+                long delay = task.nextRunNanos - System.nanoTime();
+                if (delay <= 0) {
+                    this.taskQueue.pollFirst();
+                    return task;
                 }
 
-                // This moment is 'now'
-                long now = System.currentTimeMillis();
-
-                // So, if the current time minus the timestamp of the task is greater than
-                // the delay to wait before starting the task, then start the task.
-
-                // Repeating tasks get a reset-timestamp each time they are set RUNNING
-                // If the task has a period of 0 (zero) this task will not repeat, and is removed
-                // after we start it.
-
-                if (threshold <= (now - task.timestamp)) {
-                    // startTask is just a utility function within the Scheduler that
-                    // starts the task.
-                    // If the task is not a one time shot then keep it and
-                    // change the timestamp to now.  It is a little more
-                    // efficient to do this now than after starting the task.
-                    task.timestamp = System.currentTimeMillis();
-                    boolean bTaskStarted = startTask(task);
-                    if (bTaskStarted) {
-                        task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
-                        // If task is one time shot, remove it from the list.
-                        if (task.period == 0L) {
-                            this.taskMap.remove(task.getUniqueId());
-                        }
-                    }
+                try {
+                    this.condition.awaitNanos(delay);
+                } catch (InterruptedException e) {
+                    // Nothing interrupts this thread on purpose, look at the queue again.
                 }
             }
-            this.lastProcessingTimestamp = System.currentTimeMillis();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void processTask(ScheduledTask task) {
+        // If the task is now slated to be canceled, it was already removed.
+        if (task.state == ScheduledTask.ScheduledTaskState.CANCELED) {
+            return;
+        }
+
+        task.timestamp = System.nanoTime();
+        if (startTask(task)) {
+            task.compareAndSetState(ScheduledTask.ScheduledTaskState.WAITING, ScheduledTask.ScheduledTaskState.RUNNING);
+        }
+
+        this.lock.lock();
+        try {
+            // A task canceled until now is not added again, later cancels remove it from the queue.
+            if (task.period > 0L && task.state != ScheduledTask.ScheduledTaskState.CANCELED) {
+                task.nextRunNanos = task.timestamp + TimeUnit.MILLISECONDS.toNanos(task.period);
+                this.taskQueue.add(task);
+            } else {
+                this.schedulerHelper.removeTask(this.taskMap, task);
+            }
         } finally {
             this.lock.unlock();
         }
@@ -273,11 +235,16 @@ private void processTasks() {
     private Optional<Task> utilityForAddingAsyncTask(ScheduledTask task) {
         Optional<Task> resultTask = Optional.absent();
 
-        task.setTimestamp(System.currentTimeMillis());
+        task.setTimestamp(System.nanoTime());
+        task.nextRunNanos = task.timestamp + TimeUnit.MILLISECONDS.toNanos(task.offset);
         this.lock.lock();
         try {
-            this.taskMap.put(task.getUniqueId(), task);
-            this.condition.signalAll();
+            this.schedulerHelper.utilityForAddingTask(this.taskMap, task);
+            this.taskQueue.add(task);
+            // Only wake up the scheduler if it has to wait for less time now
+            if (this.taskQueue.first() == task) {
+                this.condition.signal();
+            }
             resultTask = Optional.of((Task) task);
         } finally {
             this.lock.unlock();
@@ -696,18 +663,35 @@ public Collection<Task> getScheduledTasks(Object plugin) {
         return this.schedulerHelper.getScheduledTasks(this.taskMap, plugin);
     }
 
-    private boolean startTask(ScheduledTask task) {
-        // We'll succeed unless there's an exception found when we try to start the
-        // actual Runnable target.
-        boolean bRes = true;
-        try {
-            this.executor.submit(task.runnableBody);
-        } catch (Exception ex) {
-            Sponge.getLogger().error(SchedulerLogMessages.USER_TASK_FAILED_TO_RUN_ERROR);
-            Sponge.getLogger().error(ex.toString());
-            bRes = false;
+    /**
+     * <p>
+     * Gets the counters of the asynchronous tasks of every plugin that
+     * scheduled one.
+     * </p>
+     *
+     * @return An unmodifiable map from plugin id to the counters
+     */
+    public Map<String, AsyncTaskCounters> getTaskCounters() {
+        return this.executor.getCounters();
+    }
 
-        }
-        return bRes;
+    /**
+     * <p>
+     * Gets the counters of the asynchronous tasks of a plugin.
+     * </p>
+     *
+     * @param plugin The plugin
+     * @return The counters of the plugin
+     */
+    public AsyncTaskCounters getTaskCounters(Object plugin) {
+        Optional<PluginContainer> container = Sponge.getGame().getPluginManager().fromInstance(plugin);
+        checkArgument(container.isPresent(), "Unknown plugin: %s", plugin);
+        return this.executor.getCounters(container.get().getId());
+    }
+
+    private boolean startTask(ScheduledTask task) {
+        // The executor runs the body on the pool of the plugin, or rejects it
+        // if the pool is saturated.
+        return this.executor.execute(task);
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Counts the asynchronous tasks of a single plugin as they pass through its
+ * executor pool.
+ * </p>
+ */
+public final class AsyncTaskCounters {
+
+    final AtomicInteger queued = new AtomicInteger();
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicLong completed = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+    AsyncTaskCounters() {
+    }
+
+    /**
+     * Gets the number of tasks that wait for a thread.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return this.queued.get();
+    }
+
+    /**
+     * Gets the number of threads currently running a task.
+     *
+     * @return The number of active threads
+     */
+    public int getActiveThreads() {
+        return this.active.get();
+    }
+
+    public long getCompletedTasks() {
+        return this.completed.get();
+    }
+
+    /**
+     * Gets the number of tasks that were dropped because the queue of the
+     * pool was full.
+     *
+     * @return The number of rejected tasks
+     */
+    public long getRejectedTasks() {
+        return this.rejected.get();
+    }
+
+}
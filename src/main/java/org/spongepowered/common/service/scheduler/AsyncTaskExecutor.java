@@ -0,0 +1,203 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.scheduler;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.configuration.SpongeConfig;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Runs the bodies of asynchronous tasks on bounded thread pools.
+ * </p>
+ *
+ * <p>
+ * Tasks share one pool unless their plugin is given a pool of its own in the
+ * config. Every pool has a bounded queue, and the configured rejection policy
+ * decides what happens to a task once it is full, so a plugin that keeps
+ * scheduling blocking tasks can not create an unbounded number of threads.
+ * </p>
+ */
+final class AsyncTaskExecutor {
+
+    enum RejectionPolicy {
+        CALLER_RUNS,
+        DISCARD,
+        DISCARD_OLDEST;
+
+        static RejectionPolicy parse(String policy) {
+            try {
+                return valueOf(policy.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                Sponge.getLogger().warn("Unknown scheduler rejection policy {}, using discard", policy);
+                return DISCARD;
+            }
+        }
+    }
+
+    private final SpongeConfig.SchedulerCategory config;
+    private final RejectionPolicy rejectionPolicy;
+    private final ThreadPoolExecutor sharedPool;
+    private final ConcurrentMap<String, ThreadPoolExecutor> pluginPools = new ConcurrentHashMap<String, ThreadPoolExecutor>();
+    private final ConcurrentMap<String, AsyncTaskCounters> counters = new ConcurrentHashMap<String, AsyncTaskCounters>();
+
+    AsyncTaskExecutor(SpongeConfig.SchedulerCategory config) {
+        this.config = config;
+        this.rejectionPolicy = RejectionPolicy.parse(config.getRejectionPolicy());
+
+        int threads = config.getAsyncThreads();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        this.sharedPool = createPool(threads, config.getAsyncQueueSize(), "Sponge Async Scheduler #%d");
+    }
+
+    private static ThreadPoolExecutor createPool(int threads, int queueSize, String nameFormat) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(Math.max(1, queueSize)),
+                new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private ThreadPoolExecutor getPool(String pluginId) {
+        ThreadPoolExecutor pool = this.pluginPools.get(pluginId);
+        if (pool != null) {
+            return pool;
+        }
+
+        Integer threads = this.config.getPluginThreads().get(pluginId);
+        if (threads == null || threads <= 0) {
+            return this.sharedPool;
+        }
+
+        pool = createPool(threads, this.config.getPluginQueueSize(), "Sponge Async Scheduler - " + pluginId + " #%d");
+        ThreadPoolExecutor existing = this.pluginPools.putIfAbsent(pluginId, pool);
+        if (existing != null) {
+            pool.shutdown();
+            return existing;
+        }
+        return pool;
+    }
+
+    AsyncTaskCounters getCounters(String pluginId) {
+        AsyncTaskCounters counters = this.counters.get(pluginId);
+        if (counters == null) {
+            counters = new AsyncTaskCounters();
+            AsyncTaskCounters existing = this.counters.putIfAbsent(pluginId, counters);
+            if (existing != null) {
+                counters = existing;
+            }
+        }
+        return counters;
+    }
+
+    Map<String, AsyncTaskCounters> getCounters() {
+        return Collections.unmodifiableMap(Maps.newHashMap(this.counters));
+    }
+
+    /**
+     * Hands the body of the task to the pool of its plugin.
+     *
+     * @param task The task to run
+     * @return False if the task was rejected
+     */
+    boolean execute(ScheduledTask task) {
+        String pluginId = task.getOwner().getId();
+        ThreadPoolExecutor pool = getPool(pluginId);
+        CountedTask countedTask = new CountedTask(task.runnableBody, getCounters(pluginId));
+
+        try {
+            pool.execute(countedTask);
+            return true;
+        } catch (RejectedExecutionException e) {
+            switch (this.rejectionPolicy) {
+                case CALLER_RUNS:
+                    countedTask.run();
+                    return true;
+                case DISCARD_OLDEST:
+                    Runnable oldest = pool.getQueue().poll();
+                    if (oldest instanceof CountedTask) {
+                        ((CountedTask) oldest).reject();
+                    }
+                    try {
+                        pool.execute(countedTask);
+                        return true;
+                    } catch (RejectedExecutionException e2) {
+                        countedTask.reject();
+                        return false;
+                    }
+                default:
+                    countedTask.reject();
+                    return false;
+            }
+        }
+    }
+
+    private static final class CountedTask implements Runnable {
+
+        private final Runnable body;
+        private final AsyncTaskCounters counters;
+
+        CountedTask(Runnable body, AsyncTaskCounters counters) {
+            this.body = body;
+            this.counters = counters;
+            counters.queued.incrementAndGet();
+        }
+
+        void reject() {
+            this.counters.queued.decrementAndGet();
+            this.counters.rejected.incrementAndGet();
+            Sponge.getLogger().warn(SchedulerLogMessages.USER_TASK_REJECTED_WARNING);
+        }
+
+        @Override
+        public void run() {
+            this.counters.queued.decrementAndGet();
+            this.counters.active.incrementAndGet();
+            try {
+                this.body.run();
+            } catch (Throwable t) {
+                Sponge.getLogger().error(SchedulerLogMessages.USER_TASK_FAILED_TO_RUN_ERROR, t);
+            } finally {
+                this.counters.active.decrementAndGet();
+                this.counters.completed.incrementAndGet();
+            }
+        }
+
+    }
+
+}
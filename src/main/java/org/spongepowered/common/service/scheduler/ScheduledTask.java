@@ -29,6 +29,7 @@
 import org.spongepowered.api.service.scheduler.Task;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * <p>
@@ -43,11 +44,25 @@ public class ScheduledTask implements Task {
     protected PluginContainer owner;
     protected Runnable runnableBody;
     protected long timestamp;
-    protected ScheduledTaskState state;
+    protected volatile ScheduledTaskState state;
     protected UUID id;
     protected String name;
     protected TaskSynchroncity syncType;
 
+    // The handle of the task in the tick wheel of the SyncScheduler. Only used by the main thread.
+    TickWheel.Entry<ScheduledTask> wheelEntry;
+    // The System.nanoTime() the task is due next in the AsyncScheduler. Guarded by its lock.
+    long nextRunNanos;
+    // The helper that indexes the task by name, set once the task was created
+    SchedulerHelper helper;
+    // The tick a deferred task was due on in the SyncScheduler. Only used by the main thread.
+    long dueTick;
+    // Whether the SyncScheduler may delay the task to a later tick when the tick budget is spent
+    protected volatile boolean deferrable = true;
+
+    private static final AtomicReferenceFieldUpdater<ScheduledTask, ScheduledTaskState> STATE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ScheduledTask.class, ScheduledTaskState.class, "state");
+
     // Internal Task state. Not for user-service use.
     public enum ScheduledTaskState {
         WAITING,
@@ -82,6 +97,11 @@ protected ScheduledTask setState(ScheduledTaskState state) {
         return this;
     }
 
+    // Atomically changes the state, fails if the state was changed (e.g. canceled) in the meantime
+    protected boolean compareAndSetState(ScheduledTaskState expect, ScheduledTaskState update) {
+        return STATE_UPDATER.compareAndSet(this, expect, update);
+    }
+
     // Builder method
     protected ScheduledTask setOffset(long x) {
         this.offset = x;
@@ -112,6 +132,26 @@ protected ScheduledTask setRunnableBody(Runnable body) {
         return this;
     }
 
+    /**
+     * <p>
+     * Sets whether the task may be delayed to a later tick when the
+     * synchronous tasks of a tick exceed the configured tick budget.
+     * Tasks are deferrable by default, critical tasks that must run on the
+     * tick they are due should not be.
+     * </p>
+     *
+     * @param deferrable Whether the task may be deferred
+     * @return This task
+     */
+    public ScheduledTask setDeferrable(boolean deferrable) {
+        this.deferrable = deferrable;
+        return this;
+    }
+
+    public boolean isDeferrable() {
+        return this.deferrable;
+    }
+
     @Override
     public PluginContainer getOwner() {
 
@@ -141,8 +181,6 @@ public Optional<Long> getInterval() {
     @Override
     public boolean cancel() {
 
-        boolean bResult = false;
-
         // When a task is canceled, it is removed from the map
         // Even if the task is a repeating task, by removing it from the map of tasks
         // known in the Scheduler, the task will not repeat.
@@ -152,13 +190,21 @@ public boolean cancel() {
         // If the task is already canceled, or already running, the task cannot
         // be canceled.
 
-        if (this.state == ScheduledTask.ScheduledTaskState.WAITING) {
-            bResult = true;
+        ScheduledTaskState previousState;
+        do {
+            previousState = this.state;
+            if (previousState == ScheduledTask.ScheduledTaskState.CANCELED) {
+                return false;
+            }
+        } while (!compareAndSetState(previousState, ScheduledTask.ScheduledTaskState.CANCELED));
+
+        if (this.syncType == TaskSynchroncity.SYNCHRONOUS) {
+            ((SyncScheduler) SyncScheduler.getInstance()).onTaskCanceled(this);
+        } else {
+            ((AsyncScheduler) AsyncScheduler.getInstance()).onTaskCanceled(this);
         }
 
-        this.state = ScheduledTask.ScheduledTaskState.CANCELED;
-
-        return bResult;
+        return previousState == ScheduledTask.ScheduledTaskState.WAITING;
     }
 
     @Override
@@ -193,7 +239,11 @@ public boolean isSynchronous() {
     @Override
     public String setName(String name) {
 
+        String oldName = this.name;
         this.name = name;
+        if (this.helper != null) {
+            this.helper.onTaskRenamed(this, oldName);
+        }
         return this.name;
     }
 
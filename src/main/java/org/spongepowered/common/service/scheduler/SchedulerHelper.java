@@ -25,23 +25,52 @@
 package org.spongepowered.common.service.scheduler;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.service.scheduler.Task;
 import org.spongepowered.common.Sponge;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 public class SchedulerHelper {
 
-    private long sequenceNumber = 0L;
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final AtomicLong sequenceNumber = new AtomicLong();
     private ScheduledTask.TaskSynchroncity syncType;
 
+    // Secondary indexes of the task map, updated as tasks are added, renamed and removed
+    private final ConcurrentMap<String, Set<ScheduledTask>> tasksByPlugin = new ConcurrentHashMap<String, Set<ScheduledTask>>();
+    // Names aren't unique, so each name maps to all tasks that carry it. Guarded by itself.
+    private final Map<String, Set<ScheduledTask>> tasksByName = new HashMap<String, Set<ScheduledTask>>();
+
+    // Plugins tend to look up the same few patterns over and over
+    private final LoadingCache<String, Pattern> patternCache = CacheBuilder.newBuilder()
+            .maximumSize(64)
+            .build(new CacheLoader<String, Pattern>() {
+
+                @Override
+                public Pattern load(String pattern) throws Exception {
+                    return Pattern.compile(pattern);
+                }
+            });
+
     @SuppressWarnings("unused")
     private SchedulerHelper() {
     }
@@ -53,10 +82,74 @@ protected SchedulerHelper(ScheduledTask.TaskSynchroncity syncType) {
     protected Optional<Task> utilityForAddingTask(Map<UUID, ScheduledTask> taskMap, ScheduledTask task) {
         Optional<Task> resultTask = Optional.absent();
         taskMap.put(task.getUniqueId(), task);
+        getPluginTasks(task.getOwner().getId()).add(task);
+        if (task.name != null) {
+            addNamedTask(task.name, task);
+        }
         resultTask = Optional.of((Task) task);
         return resultTask;
     }
 
+    /**
+     * <p>
+     * Removes a Task from the map of Tasks and the indexes.
+     * </p>
+     *
+     * @param task The Task to remove
+     */
+    protected void removeTask(Map<UUID, ScheduledTask> taskMap, ScheduledTask task) {
+        if (taskMap.remove(task.getUniqueId()) != null) {
+            getPluginTasks(task.getOwner().getId()).remove(task);
+            if (task.name != null) {
+                removeNamedTask(task.name, task);
+            }
+        }
+    }
+
+    // Called by the task after its name changed
+    void onTaskRenamed(ScheduledTask task, @Nullable String oldName) {
+        if (getPluginTasks(task.getOwner().getId()).contains(task)) {
+            if (oldName != null) {
+                removeNamedTask(oldName, task);
+            }
+            if (task.name != null) {
+                addNamedTask(task.name, task);
+            }
+        }
+    }
+
+    private void addNamedTask(String name, ScheduledTask task) {
+        synchronized (this.tasksByName) {
+            Set<ScheduledTask> tasks = this.tasksByName.get(name);
+            if (tasks == null) {
+                tasks = new LinkedHashSet<ScheduledTask>();
+                this.tasksByName.put(name, tasks);
+            }
+            tasks.add(task);
+        }
+    }
+
+    private void removeNamedTask(String name, ScheduledTask task) {
+        synchronized (this.tasksByName) {
+            Set<ScheduledTask> tasks = this.tasksByName.get(name);
+            if (tasks != null && tasks.remove(task) && tasks.isEmpty()) {
+                this.tasksByName.remove(name);
+            }
+        }
+    }
+
+    private Set<ScheduledTask> getPluginTasks(String pluginId) {
+        Set<ScheduledTask> tasks = this.tasksByPlugin.get(pluginId);
+        if (tasks == null) {
+            tasks = Collections.newSetFromMap(new ConcurrentHashMap<ScheduledTask, Boolean>());
+            Set<ScheduledTask> existing = this.tasksByPlugin.putIfAbsent(pluginId, tasks);
+            if (existing != null) {
+                tasks = existing;
+            }
+        }
+        return tasks;
+    }
+
     /**
      * <p>
      * Start a repeating Task with a period (interval) of Ticks. The first
@@ -100,20 +193,17 @@ protected Optional<Task> getTaskById(Map<UUID, ScheduledTask> taskMap, UUID id)
      * Determine the Collection of Tasks that the TaskScheduler is aware of.
      * </p>
      *
-     * @return Collection&lt;Task&gt; of all known Tasks in the TaskScheduler
+     * @return Collection&lt;Task&gt; of all known Tasks in the TaskScheduler,
+     *         an unmodifiable view that reflects later changes
      */
     protected Collection<Task> getScheduledTasks(Map<UUID, ScheduledTask> taskMap) {
-        Collection<Task> taskCollection;
-        synchronized (taskMap) {
-            taskCollection = new ArrayList<Task>(taskMap.values());
-        }
-        return taskCollection;
+        return Collections.<Task>unmodifiableCollection(taskMap.values());
     }
 
     /**
      * <p>
-     * The query for Tasks owned by a target Plugin owner is found by testing
-     * the map of Tasks by testing the ID of each PluginContainer.
+     * The query for Tasks owned by a target Plugin owner is answered from the
+     * index of Tasks by the ID of each PluginContainer.
      * </p>
      *
      * <p>
@@ -124,7 +214,7 @@ protected Collection<Task> getScheduledTasks(Map<UUID, ScheduledTask> taskMap) {
      *
      * @param plugin The plugin that may own the Tasks in the TaskScheduler
      * @return Collection&lt;Task&gt; of Tasks owned by the PluginContainer
-     *         plugin.
+     *         plugin, an unmodifiable view that reflects later changes
      */
     protected Collection<Task> getScheduledTasks(Map<UUID, ScheduledTask> taskMap, Object plugin) {
 
@@ -141,26 +231,7 @@ protected Collection<Task> getScheduledTasks(Map<UUID, ScheduledTask> taskMap, O
         // The result Collection represents the Tasks that are owned by the plugin.  The list
         // is non-null.  If no Tasks exists owned by the Plugin, return an empty Collection
         // else return a Collection of Tasks.
-
-        PluginContainer testedOwner = (PluginContainer) plugin;
-        String testOwnerId = testedOwner.getId();
-        Collection<Task> subsetCollection;
-
-        synchronized (taskMap) {
-            subsetCollection = new ArrayList<Task>(taskMap.values());
-        }
-
-        Iterator<Task> it = subsetCollection.iterator();
-
-        while (it.hasNext()) {
-            String pluginId = it.next().getOwner().getId();
-
-            if (!testOwnerId.equals(pluginId)) {
-                it.remove();
-            }
-        }
-
-        return subsetCollection;
+        return Collections.<Task>unmodifiableSet(getPluginTasks(((PluginContainer) plugin).getId()));
     }
 
     /**
@@ -172,56 +243,60 @@ protected Collection<Task> getScheduledTasks(Map<UUID, ScheduledTask> taskMap, O
      * @return The Optional&lt;UUID&gt; result from the search by name.
      */
     protected Optional<UUID> getUuidOfTaskByName(Map<UUID, ScheduledTask> taskMap, String name) {
-        Optional<UUID> resultUuid = Optional.absent();
-
-        for (ScheduledTask t : taskMap.values()) {
-            if (name.equals(t.name)) {
-                return Optional.of(t.id);
+        synchronized (this.tasksByName) {
+            Set<ScheduledTask> tasks = this.tasksByName.get(name);
+            if (tasks != null && !tasks.isEmpty()) {
+                // Names aren't unique, the task that got the name first wins
+                return Optional.of(tasks.iterator().next().id);
             }
         }
-        return resultUuid;
-
+        return Optional.absent();
     }
 
     /**
      * <p>
-     * Get a collection of UUIDs for tasks that match the Regular Expression
+     * Get a collection of Tasks whose names match the Regular Expression
      * pattern
      * </p>
      *
      * <p>
-     * If no tasks match the pattern, the collection is Optional.absent()
-     * </p>
-     * <p>
-     * If there are Tasks that match the regular expression pattern, the
-     * Collection is not Optional.absent().
+     * If no tasks match the pattern, the collection is empty.
      * </p>
      *
      * @param pattern The regular expression pattern applied to the name of
      *        tasks.
-     * @return An Optional&lt;UUID&gt; result of task UUIDs that match the
-     *         pattern or Optional.absent() if none match.
+     * @return An unmodifiable Collection&lt;Task&gt; of the tasks that match
+     *         the pattern.
      */
     protected Collection<Task> getfTasksByName(Map<UUID, ScheduledTask> taskMap, String pattern) {
-
-        Collection<Task> subsetCollection;
-        Pattern searchPattern = Pattern.compile(pattern);
-
-        synchronized (taskMap) {
-            subsetCollection = new ArrayList<Task>(taskMap.values());
+        List<Task> subsetCollection = new ArrayList<Task>();
+        synchronized (this.tasksByName) {
+            if (isLiteral(pattern)) {
+                // Nothing to match, so the name index has the answer
+                Set<ScheduledTask> tasks = this.tasksByName.get(pattern);
+                if (tasks != null) {
+                    subsetCollection.addAll(tasks);
+                }
+            } else {
+                Pattern searchPattern = this.patternCache.getUnchecked(pattern);
+                for (Map.Entry<String, Set<ScheduledTask>> entry : this.tasksByName.entrySet()) {
+                    if (searchPattern.matcher(entry.getKey()).matches()) {
+                        subsetCollection.addAll(entry.getValue());
+                    }
+                }
+            }
         }
 
-        Iterator<Task> it = subsetCollection.iterator();
+        return Collections.unmodifiableList(subsetCollection);
+    }
 
-        while (it.hasNext()) {
-            String taskName = it.next().getOwner().getName();
-            Matcher matcher = searchPattern.matcher(taskName);
-            if (!matcher.matches()) {
-                it.remove();
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(pattern.charAt(i)) != -1) {
+                return false;
             }
         }
-
-        return subsetCollection;
+        return true;
     }
 
     protected ScheduledTask taskValidationStep(Object plugin, Runnable runnableTarget, long offset, long period) {
@@ -243,12 +318,12 @@ protected ScheduledTask taskValidationStep(Object plugin, Runnable runnableTarge
         String pluginId = container.get().getId();
         String taskName;
 
-        this.sequenceNumber++;
+        long sequenceNumber = this.sequenceNumber.incrementAndGet();
 
         if (pluginId == null) {
-            taskName = String.format("Unknown-%d", this.sequenceNumber);
+            taskName = "Unknown-" + sequenceNumber;
         } else {
-            taskName = String.format("%s-S%d", pluginId, this.sequenceNumber);
+            taskName = pluginId + "-S" + sequenceNumber;
         }
 
         // Is task a Runnable task?
@@ -283,6 +358,7 @@ protected ScheduledTask taskValidationStep(Object plugin, Runnable runnableTarge
                 .setRunnableBody(runnableTarget);
 
         tmpTask.setName(taskName);
+        tmpTask.helper = this;
 
         return tmpTask;
     }
@@ -36,6 +36,8 @@ public final class SchedulerLogMessages {
     public static final String NULL_RUNNABLE_ARGUMENT_INVALID_WARNING =
             "The Task could not be created. The Runnable argument is not derived from Runnable.";
     public static final String USER_TASK_FAILED_TO_RUN_ERROR = "The Scheduler tried to run the Task, but the Runnable could not be started.";
+    public static final String USER_TASK_REJECTED_WARNING =
+            "The Scheduler could not run the asynchronous Task because the queue of its thread pool is full. The Task was dropped.";
     public static final String USER_TASK_TO_RUN_WAS_NULL_WARNING =
             "The Scheduler tried to run the Task, but the Task is null. The Task did not start.";
     public static final String CATASTROPHIC_ERROR_IN_SCHEDULER_SEEK_HELP =
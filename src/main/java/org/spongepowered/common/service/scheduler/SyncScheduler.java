@@ -30,9 +30,14 @@
 import org.spongepowered.common.Sponge;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -45,6 +50,23 @@ public class SyncScheduler implements SynchronousScheduler {
 
     // The simple queue of all pending (and running) ScheduledTasks
     private final Map<UUID, ScheduledTask> taskMap = new ConcurrentHashMap<UUID, ScheduledTask>();
+    // The tasks by the tick they are due on, only used by the main thread
+    private final TickWheel<ScheduledTask> tickWheel = new TickWheel<ScheduledTask>(0L);
+    // Tasks may be added and canceled from any thread, so they are only moved
+    // into (or out of) the tick wheel at the start of the next tick.
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<ScheduledTask>();
+    private final Queue<ScheduledTask> canceledTasks = new ConcurrentLinkedQueue<ScheduledTask>();
+    // Deferrable tasks that are due but did not fit into the budget of their tick yet,
+    // the most overdue first. Canceled tasks are skipped when they are polled.
+    private final Queue<ScheduledTask> deferredTasks = new PriorityQueue<ScheduledTask>(16, new Comparator<ScheduledTask>() {
+
+        @Override
+        public int compare(ScheduledTask o1, ScheduledTask o2) {
+            return o1.dueTick < o2.dueTick ? -1 : o1.dueTick > o2.dueTick ? 1 : 0;
+        }
+    });
+    // The time deferrable tasks may take each tick, 0 for no limit
+    private final long tickBudgetNanos;
     // The internal counter of the number of Ticks elapsed since this Scheduler was listening for
     // ServerTickEvent from Forge.
     private volatile long counter = 0L;
@@ -71,6 +93,7 @@ public class SyncScheduler implements SynchronousScheduler {
      */
     private SyncScheduler() {
         this.schedulerHelper = new SchedulerHelper(ScheduledTask.TaskSynchroncity.SYNCHRONOUS);
+        this.tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Sponge.getGlobalConfig().getConfig().getScheduler().getTickBudget()));
     }
 
     @Override
@@ -145,63 +168,101 @@ public static SynchronousScheduler getInstance() {
      * </p>
      */
     public void tick() {
+        processAddedAndCanceledTasks();
         this.counter++;
         processTasks();
     }
 
+    void onTaskCanceled(ScheduledTask task) {
+        this.canceledTasks.add(task);
+    }
+
+    private Optional<Task> addTask(ScheduledTask task) {
+        Optional<Task> resultTask = this.schedulerHelper.utilityForAddingTask(this.taskMap, task);
+        this.addedTasks.add(task);
+        return resultTask;
+    }
+
+    private void processAddedAndCanceledTasks() {
+        ScheduledTask task;
+        while ((task = this.canceledTasks.poll()) != null) {
+            if (task.wheelEntry != null) {
+                this.tickWheel.remove(task.wheelEntry);
+                task.wheelEntry = null;
+            }
+            this.schedulerHelper.removeTask(this.taskMap, task);
+        }
+
+        while ((task = this.addedTasks.poll()) != null) {
+            // A task canceled before it was added was already removed from the map above
+            if (task.state != ScheduledTask.ScheduledTaskState.CANCELED) {
+                // The delay counts from the tick the task was added on
+                task.timestamp = this.counter;
+                schedule(task, task.offset);
+            }
+        }
+    }
+
+    private void schedule(ScheduledTask task, long delay) {
+        // A task without a delay runs on the next tick
+        task.wheelEntry = this.tickWheel.add(task, this.counter + Math.max(delay, 1L));
+    }
+
     private void processTasks() {
         //
-        // For each task, inspect the state.
-        //
-        // For the state of CANCELED, remove it and look at the next task, if any.
-        //
-        // For the state of WAITING, the task has not begun, so check the
-        // offset time before starting that task for the first time.
+        // Only the tasks that are due on this tick are taken from the tick wheel.
         //
-        // Else if the task is already RUNNING, use the period (the time delay until
-        // the next moment to run the task).
+        // Tasks that are not deferrable run right away. The others join the tasks
+        // that were left over from earlier ticks and run, most overdue first,
+        // until the tick budget (if any) is spent. The budget only counts the
+        // deferrable tasks, and at least one of them runs each tick, so they
+        // can't be starved by the others.
         //
-        for (ScheduledTask task : this.taskMap.values()) {
-            // If the task is now slated to be canceled, we just remove it as if it no longer exists.
-            if (task.state == ScheduledTask.ScheduledTaskState.CANCELED) {
-                this.taskMap.remove(task.getUniqueId());
-                continue;
+        for (TickWheel.Entry<ScheduledTask> entry = this.tickWheel.advance(); entry != null; entry = entry.getNext()) {
+            ScheduledTask task = entry.getValue();
+            task.wheelEntry = null;
+
+            if (task.deferrable && this.tickBudgetNanos > 0L) {
+                task.dueTick = entry.getDeadline();
+                this.deferredTasks.add(task);
+            } else {
+                runDueTask(task);
             }
+        }
 
-            long threshold = Long.MAX_VALUE;
-
-            // Figure out if we start a delayed Task after threshold ticks or,
-            // start it after the interval (period) of the repeating task parameter.
-            if (task.state == ScheduledTask.ScheduledTaskState.WAITING) {
-                threshold = task.offset;
-            } else if (task.state == ScheduledTask.ScheduledTaskState.RUNNING) {
-                threshold = task.period;
+        long start = System.nanoTime();
+        boolean ranDeferredTask = false;
+        ScheduledTask task;
+        while ((task = this.deferredTasks.peek()) != null) {
+            if (ranDeferredTask && this.tickBudgetNanos > 0L && System.nanoTime() - start >= this.tickBudgetNanos) {
+                // The rest has to wait for the next tick
+                break;
             }
+            runDueTask(this.deferredTasks.poll());
+            ranDeferredTask = true;
+        }
+    }
 
-            // This moment is 'now'
-            long now = this.counter;
-
-            // So, if the current time minus the timestamp of the task is greater than
-            // the delay to wait before starting the task, then start the task.
-            // Repeating tasks get a reset-timestamp each time they are set RUNNING
-            // If the task has a period of 0 (zero) this task will not repeat, and is removed
-            // after we start it.
-            if (threshold <= (now - task.timestamp)) {
-                // startTask is just a utility function within the Scheduler that
-                // starts the task.
-                // If the task is not a one time shot then keep it and
-                // change the timestamp to now.  It is a little more
-                // efficient to do this now than after starting the task.
-                task.timestamp = this.counter;
-                boolean bTaskStarted = startTask(task);
-                if (bTaskStarted) {
-                    task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
-                    // If task is one time shot, remove it from the map.
-                    if (task.period == 0L) {
-                        this.taskMap.remove(task.getUniqueId());
-                    }
-                }
-            }
+    private void runDueTask(ScheduledTask task) {
+        // For the state of CANCELED, remove it as if it no longer exists.
+        //
+        // Else run the task. If the task is repeating, put it back into the wheel
+        // for the tick after the interval (period), otherwise remove it.
+        if (task.state == ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.schedulerHelper.removeTask(this.taskMap, task);
+            return;
+        }
+
+        task.timestamp = this.counter;
+        if (startTask(task)) {
+            task.compareAndSetState(ScheduledTask.ScheduledTaskState.WAITING, ScheduledTask.ScheduledTaskState.RUNNING);
+        }
+
+        // The task may have canceled itself while running
+        if (task.period > 0L && task.state != ScheduledTask.ScheduledTaskState.CANCELED) {
+            schedule(task, task.period);
+        } else {
+            this.schedulerHelper.removeTask(this.taskMap, task);
         }
     }
 
@@ -252,7 +313,7 @@ public Optional<Task> runTask(Object plugin, Runnable runnableTarget) {
         if (nonRepeatingTask == null) {
             Sponge.getLogger().warn(SchedulerLogMessages.CANNOT_MAKE_TASK_WARNING);
         } else {
-            resultTask = this.schedulerHelper.utilityForAddingTask(this.taskMap, nonRepeatingTask);
+            resultTask = addTask(nonRepeatingTask);
         }
 
         return resultTask;
@@ -306,7 +367,7 @@ public Optional<Task> runTaskAfter(Object plugin, Runnable runnableTarget, long
         if (nonRepeatingTask == null) {
             Sponge.getLogger().warn(SchedulerLogMessages.CANNOT_MAKE_TASK_WARNING);
         } else {
-            resultTask = this.schedulerHelper.utilityForAddingTask(this.taskMap, nonRepeatingTask);
+            resultTask = addTask(nonRepeatingTask);
         }
 
         return resultTask;
@@ -376,7 +437,7 @@ public Optional<Task> runRepeatingTask(Object plugin, Runnable runnableTarget, l
         if (repeatingTask == null) {
             Sponge.getLogger().warn(SchedulerLogMessages.CANNOT_MAKE_TASK_WARNING);
         } else {
-            resultTask = this.schedulerHelper.utilityForAddingTask(this.taskMap, repeatingTask);
+            resultTask = addTask(repeatingTask);
         }
 
         return resultTask;
@@ -446,12 +507,99 @@ public Optional<Task> runRepeatingTaskAfter(Object plugin, Runnable runnableTarg
         if (repeatingTask == null) {
             Sponge.getLogger().warn(SchedulerLogMessages.CANNOT_MAKE_TASK_WARNING);
         } else {
-            resultTask = this.schedulerHelper.utilityForAddingTask(this.taskMap, repeatingTask);
+            resultTask = addTask(repeatingTask);
         }
 
         return resultTask;
     }
 
+    /**
+     * Creates a builder for a synchronous task. It offers the options of
+     * tasks that the {@link SynchronousScheduler} methods don't, such as
+     * whether the task may be deferred.
+     *
+     * @return The builder
+     */
+    public static TaskBuilder builder() {
+        return new TaskBuilder();
+    }
+
+    /**
+     * Builds and submits a synchronous task.
+     */
+    public static final class TaskBuilder {
+
+        private Object plugin;
+        private Runnable runnable;
+        private long delay;
+        private long interval;
+        private boolean deferrable = true;
+
+        TaskBuilder() {
+        }
+
+        public TaskBuilder plugin(Object plugin) {
+            this.plugin = plugin;
+            return this;
+        }
+
+        public TaskBuilder execute(Runnable runnable) {
+            this.runnable = runnable;
+            return this;
+        }
+
+        /**
+         * Sets the ticks to wait before the task runs first.
+         *
+         * @param delay The delay in ticks
+         * @return This builder
+         */
+        public TaskBuilder delay(long delay) {
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * Sets the ticks between runs of the task, 0 to run it once.
+         *
+         * @param interval The interval in ticks
+         * @return This builder
+         */
+        public TaskBuilder interval(long interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * Sets whether the task may be delayed to a later tick when the tick
+         * budget is spent, see {@link ScheduledTask#setDeferrable(boolean)}.
+         *
+         * @param deferrable Whether the task may be deferred
+         * @return This builder
+         */
+        public TaskBuilder deferrable(boolean deferrable) {
+            this.deferrable = deferrable;
+            return this;
+        }
+
+        /**
+         * Schedules the task.
+         *
+         * @return Either Optional.absent() if invalid or a reference to the
+         *         new Task
+         */
+        public Optional<Task> submit() {
+            SyncScheduler scheduler = (SyncScheduler) getInstance();
+            ScheduledTask task = scheduler.schedulerHelper.taskValidationStep(this.plugin, this.runnable, this.delay, this.interval);
+            if (task == null) {
+                Sponge.getLogger().warn(SchedulerLogMessages.CANNOT_MAKE_TASK_WARNING);
+                return Optional.absent();
+            }
+            task.setDeferrable(this.deferrable);
+            return scheduler.addTask(task);
+        }
+    }
+
     private boolean startTask(ScheduledTask task) {
         // We'll succeed unless there's an exception found when we try to start the
         // actual Runnable target.
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>
+ * A hashed hierarchical timing wheel keyed on the tick number.
+ * </p>
+ *
+ * <p>
+ * Level 0 has one slot per tick, every higher level has one slot for all the
+ * ticks of a full turn of the level below it. Entries are placed into the
+ * lowest level that can hold their deadline and are moved down a level
+ * whenever the wheel reaches their slot, so adding, removing and expiring an
+ * entry are all O(1). Deadlines further away than the highest level are kept
+ * in an overflow list that is looked at once per turn of the highest level.
+ * </p>
+ *
+ * <p>
+ * The wheel is not thread safe.
+ * </p>
+ *
+ * @param <T> The type of the values
+ */
+public final class TickWheel<T> {
+
+    private static final int LEVEL_BITS = 6;
+    private static final int SLOTS = 1 << LEVEL_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Bucket<T>[][] levels;
+    private final Bucket<T> overflow = new Bucket<T>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TickWheel(long currentTick) {
+        this.currentTick = currentTick;
+        this.levels = new Bucket[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                this.levels[level][slot] = new Bucket<T>();
+            }
+        }
+    }
+
+    public long getCurrentTick() {
+        return this.currentTick;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a value that expires once the wheel reaches the given tick.
+     *
+     * @param value The value
+     * @param deadline The tick, must be after the current tick
+     * @return The handle to remove the value again
+     */
+    public Entry<T> add(T value, long deadline) {
+        checkArgument(deadline > this.currentTick, "deadline must be after the current tick");
+        Entry<T> entry = new Entry<T>(value, deadline);
+        place(entry);
+        this.size++;
+        return entry;
+    }
+
+    /**
+     * Removes a value from the wheel before it expires.
+     *
+     * @param entry The handle returned when the value was added
+     * @return False if the entry already expired or was removed
+     */
+    public boolean remove(Entry<T> entry) {
+        if (entry.bucket == null) {
+            return false;
+        }
+        entry.bucket.unlink(entry);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to the next tick.
+     *
+     * @return The first of the entries that expired on the new tick, linked
+     *         through {@link Entry#getNext()}, or null if none did
+     */
+    public Entry<T> advance() {
+        long tick = ++this.currentTick;
+
+        // Move entries down from the highest level first, so they can
+        // cascade all the way down to level 0 on the same tick
+        if ((tick & ((1L << (LEVEL_BITS * LEVELS)) - 1)) == 0) {
+            replace(this.overflow);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = LEVEL_BITS * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                replace(this.levels[level][(int) (tick >>> shift) & SLOT_MASK]);
+            }
+        }
+
+        Bucket<T> bucket = this.levels[0][(int) tick & SLOT_MASK];
+        Entry<T> expired = bucket.detach();
+        for (Entry<T> entry = expired; entry != null; entry = entry.next) {
+            this.size--;
+        }
+        return expired;
+    }
+
+    private void replace(Bucket<T> bucket) {
+        Entry<T> entry = bucket.detach();
+        while (entry != null) {
+            Entry<T> next = entry.next;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long deadline = entry.deadline;
+        long difference = deadline ^ this.currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = LEVEL_BITS * level;
+            if (difference >>> (shift + LEVEL_BITS) == 0) {
+                this.levels[level][(int) (deadline >>> shift) & SLOT_MASK].link(entry);
+                return;
+            }
+        }
+        this.overflow.link(entry);
+    }
+
+    /**
+     * The handle of a value in the wheel.
+     *
+     * @param <T> The type of the value
+     */
+    public static final class Entry<T> {
+
+        private final T value;
+        private final long deadline;
+
+        Bucket<T> bucket;
+        Entry<T> prev;
+        Entry<T> next;
+
+        Entry(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+
+        public long getDeadline() {
+            return this.deadline;
+        }
+
+        /**
+         * Gets the next entry that expired on the same tick.
+         *
+         * @return The next entry or null
+         */
+        public Entry<T> getNext() {
+            return this.next;
+        }
+
+    }
+
+    private static final class Bucket<T> {
+
+        private Entry<T> head;
+
+        void link(Entry<T> entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = this.head;
+            if (this.head != null) {
+                this.head.prev = entry;
+            }
+            this.head = entry;
+        }
+
+        void unlink(Entry<T> entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                this.head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        // Removes all entries, they stay linked to each other through next
+        Entry<T> detach() {
+            Entry<T> entry = this.head;
+            this.head = null;
+            for (Entry<T> e = entry; e != null; e = e.next) {
+                e.bucket = null;
+            }
+            return entry;
+        }
+
+    }
+
+}
@@ -26,7 +26,12 @@
 
 import static org.spongepowered.common.text.SpongeTexts.COLOR_CHAR;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.minecraft.network.NetworkManager;
 import net.minecraft.network.ServerStatusResponse;
+import net.minecraft.network.status.server.S00PacketServerInfo;
 import net.minecraft.server.MinecraftServer;
 import org.spongepowered.api.MinecraftVersion;
 import org.spongepowered.api.event.SpongeEventFactory;
@@ -48,6 +53,37 @@ public static ServerStatusResponse post(MinecraftServer server, StatusClient cli
         return call(create(server), client);
     }
 
+    /**
+     * Posts the status ping on the asynchronous event bus and sends the
+     * response once all handlers were called, so slow handlers do not hold
+     * the network thread.
+     *
+     * @param server The server
+     * @param networkManager The connection of the client that sent the ping
+     */
+    public static void postAsync(MinecraftServer server, final NetworkManager networkManager) {
+        final ServerStatusResponse response = create(server);
+        ListenableFuture<Boolean> future = Sponge.getSpongeEventManager().postAsync(SpongeEventFactory.createStatusPing(Sponge.getGame(),
+                new SpongeStatusClient(networkManager), (StatusPingEvent.Response) response));
+
+        Futures.addCallback(future, new FutureCallback<Boolean>() {
+
+            @Override
+            public void onSuccess(Boolean cancelled) {
+                if (!cancelled) {
+                    networkManager.sendPacket(new S00PacketServerInfo(response));
+                } else {
+                    networkManager.closeChannel(null);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                networkManager.closeChannel(null);
+            }
+        });
+    }
+
     public static ServerStatusResponse postLegacy(MinecraftServer server, InetSocketAddress address, MinecraftVersion version,
             InetSocketAddress virtualHost) {
         ServerStatusResponse response = create(server);
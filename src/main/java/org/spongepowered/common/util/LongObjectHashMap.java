@@ -0,0 +1,269 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hash map from primitive {@code long} keys to values.
+ *
+ * <p>Entries are stored in two parallel arrays with open addressing and
+ * linear probing, so lookups neither box keys nor follow entry chains.
+ * Removals shift the following entries back instead of leaving tombstones.
+ * Null values are not supported.</p>
+ *
+ * <p>The entries can be iterated without allocation by slot, see
+ * {@link #getSlotCount()} and {@link #getSlot(int)}. The map must not be
+ * modified while doing so. {@link #values()} returns a read-only copy of the
+ * values that is reused until the map is modified.</p>
+ *
+ * @param <V> The type of the values
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    @Nullable private ImmutableList<V> cachedValues;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map with room for the given number of slots, rounded up to
+     * a power of two.
+     *
+     * @param capacity The initial number of slots
+     */
+    public LongObjectHashMap(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(2, capacity - 1)) << 1);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Object[] values = this.values;
+        int slot = hash(key) & this.mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (this.keys[slot] == key) {
+                return (V) value;
+            }
+            slot = slot + 1 & this.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The value previously associated with the key, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        this.cachedValues = null;
+        int slot = hash(key) & this.mask;
+        Object previous;
+        while ((previous = this.values[slot]) != null) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return (V) previous;
+            }
+            slot = slot + 1 & this.mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size > this.threshold) {
+            resize(this.values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value associated with a key.
+     *
+     * @param key The key
+     * @return The removed value, or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = hash(key) & this.mask;
+        Object value;
+        while ((value = this.values[slot]) != null) {
+            if (this.keys[slot] == key) {
+                this.cachedValues = null;
+                this.size--;
+                shiftBack(slot);
+                return (V) value;
+            }
+            slot = slot + 1 & this.mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        this.cachedValues = null;
+        this.size = 0;
+        Arrays.fill(this.values, null);
+    }
+
+    /**
+     * Gets the number of slots, the bound for {@link #getSlot(int)}.
+     *
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return this.values.length;
+    }
+
+    /**
+     * Gets the value stored in a slot.
+     *
+     * @param slot The slot, between 0 and {@link #getSlotCount()}
+     * @return The value, or null if the slot is empty
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V getSlot(int slot) {
+        return (V) this.values[slot];
+    }
+
+    /**
+     * Gets the key stored in a slot. Only meaningful if the slot holds a
+     * value.
+     *
+     * @param slot The slot, between 0 and {@link #getSlotCount()}
+     * @return The key
+     */
+    public long getSlotKey(int slot) {
+        return this.keys[slot];
+    }
+
+    /**
+     * Gets a read-only copy of the values. The copy is reused until the map
+     * is modified.
+     *
+     * @return The values
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableList<V> values() {
+        ImmutableList<V> values = this.cachedValues;
+        if (values == null) {
+            ImmutableList.Builder<V> builder = ImmutableList.builder();
+            for (Object value : this.values) {
+                if (value != null) {
+                    builder.add((V) value);
+                }
+            }
+            this.cachedValues = values = builder.build();
+        }
+        return values;
+    }
+
+    /**
+     * Fills the emptied slot with the entries after it that would no longer
+     * be found, until an empty slot is reached.
+     */
+    private void shiftBack(int slot) {
+        int empty = slot;
+        int current = slot;
+        while (true) {
+            current = current + 1 & this.mask;
+            Object value = this.values[current];
+            if (value == null) {
+                break;
+            }
+            int ideal = hash(this.keys[current]) & this.mask;
+            // Entries whose ideal slot lies cyclically within (empty, current] stay
+            boolean stays = empty <= current ? ideal > empty && ideal <= current : ideal > empty || ideal <= current;
+            if (!stays) {
+                this.keys[empty] = this.keys[current];
+                this.values[empty] = value;
+                empty = current;
+            }
+        }
+        this.values[empty] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int slot = hash(oldKeys[i]) & this.mask;
+                while (this.values[slot] != null) {
+                    slot = slot + 1 & this.mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key) {
+        // Spreads the packed chunk coordinates over the low bits
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32);
+    }
+
+}
@@ -42,6 +42,7 @@
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.common.Sponge;
 import org.spongepowered.common.configuration.SpongeConfig;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
 import org.spongepowered.common.interfaces.IMixinWorld;
 import org.spongepowered.common.interfaces.IMixinWorldProvider;
 
@@ -72,8 +73,8 @@ public static void logSevere(String msg, Object... args) {
         MinecraftServer.getServer().logSevere(MessageFormat.format(msg, args));
     }
 
-    public static void logStack(SpongeConfig<?> config) {
-        if (config.getConfig().getLogging().logWithStackTraces()) {
+    public static void logStack(SpongeConfigSnapshot config) {
+        if (config.logWithStackTraces()) {
             Throwable ex = new Throwable();
             ex.fillInStackTrace();
             ex.printStackTrace();
@@ -81,8 +82,8 @@ public static void logStack(SpongeConfig<?> config) {
     }
 
     public static void logEntityDeath(Entity entity) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
-        if (config.getConfig().getLogging().entityDeathLogging()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
+        if (config.entityDeathLogging()) {
             logInfo("[" + config.getConfigName() + "] [" + config.getConfigName() + "] Dim: {0} setDead(): {1}",
                     entity.worldObj.provider.getDimensionId(), entity);
             logStack(config);
@@ -90,24 +91,24 @@ public static void logEntityDeath(Entity entity) {
     }
 
     public static void logEntityDespawn(Entity entity, String reason) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
-        if (config.getConfig().getLogging().entityDespawnLogging()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
+        if (config.entityDespawnLogging()) {
             logInfo("[" + config.getConfigName() + "] Dim: {0} Despawning ({1}): {2}", entity.worldObj.provider.getDimensionId(), reason, entity);
             logStack(config);
         }
     }
 
     public static void logEntitySpawn(Entity entity) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
-        if (config.getConfig().getLogging().entitySpawnLogging()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
+        if (config.entitySpawnLogging()) {
             logInfo("[" + config.getConfigName() + "] Dim: {0} Spawning: {1}", entity.worldObj.provider.getDimensionId(), entity);
             logStack(config);
         }
     }
 
     public static void logChunkLoad(World world, Vector3i chunkPos) {
-        SpongeConfig<?> config = getActiveConfig(world);
-        if (config.getConfig().getLogging().chunkLoadLogging()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(world);
+        if (config.chunkLoadLogging()) {
             logInfo("[" + config.getConfigName() + "] Load Chunk At [{0}] ({1}, {2})", world.provider.getDimensionId(), chunkPos.getX(),
                     chunkPos.getZ());
             logStack(config);
@@ -115,8 +116,8 @@ public static void logChunkLoad(World world, Vector3i chunkPos) {
     }
 
     public static void logChunkUnload(World world, Vector3i chunkPos) {
-        SpongeConfig<?> config = getActiveConfig(world);
-        if (config.getConfig().getLogging().chunkUnloadLogging()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(world);
+        if (config.chunkUnloadLogging()) {
             logInfo("[" + config.getConfigName() + "] Unload Chunk At [{0}] ({1}, {2})", world.provider.getDimensionId(), chunkPos.getX(),
                     chunkPos.getZ());
             logStack(config);
@@ -125,18 +126,18 @@ public static void logChunkUnload(World world, Vector3i chunkPos) {
 
     @SuppressWarnings("unused")
     private static void logChunkLoadOverride(ChunkProviderServer provider, int x, int z) {
-        SpongeConfig<?> config = getActiveConfig(provider.worldObj);
+        SpongeConfigSnapshot config = getConfigSnapshot(provider.worldObj);
         logInfo("[" + config.getConfigName() + "]  Chunk Load Override: {0}, Dimension ID: {1}", provider.chunkLoadOverride,
                 provider.worldObj.provider.getDimensionId());
     }
 
     public static boolean checkBoundingBoxSize(Entity entity, AxisAlignedBB aabb) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
         if (!(entity instanceof EntityLivingBase) || entity instanceof EntityPlayer) {
             return false; // only check living entities that are not players
         }
 
-        int maxBoundingBoxSize = config.getConfig().getEntity().getMaxBoundingBoxSize();
+        int maxBoundingBoxSize = config.getMaxBoundingBoxSize();
         if (maxBoundingBoxSize <= 0) {
             return false;
         }
@@ -166,12 +167,12 @@ public static boolean checkBoundingBoxSize(Entity entity, AxisAlignedBB aabb) {
     }
 
     public static boolean checkEntitySpeed(Entity entity, double x, double y, double z) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
-        int maxSpeed = config.getConfig().getEntity().getMaxSpeed();
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
+        int maxSpeed = config.getMaxSpeed();
         if (maxSpeed > 0) {
             double distance = x * x + z * z;
             if (distance > maxSpeed) {
-                if (config.getConfig().getLogging().logEntitySpeedRemoval()) {
+                if (config.logEntitySpeedRemoval()) {
                     logInfo("[" + config.getConfigName() + "] Speed violation: {0} was over {1} - Removing Entity: {2}", distance, maxSpeed, entity);
                     if (entity instanceof EntityLivingBase) {
                         EntityLivingBase livingBase = (EntityLivingBase) entity;
@@ -181,7 +182,7 @@ public static boolean checkEntitySpeed(Entity entity, double x, double y, double
                                 livingBase.moveStrafing, livingBase.moveForward);
                     }
 
-                    if (config.getConfig().getLogging().logWithStackTraces()) {
+                    if (config.logWithStackTraces()) {
                         logInfo("[" + config.getConfigName() + "] Move offset: ({0}, {1}, {2})", x, y, z);
                         logInfo("[" + config.getConfigName() + "] Motion: ({0}, {1}, {2})", entity.motionX, entity.motionY, entity.motionZ);
                         logInfo("[" + config.getConfigName() + "] Entity: {0}", entity);
@@ -208,11 +209,11 @@ public static boolean checkEntitySpeed(Entity entity, double x, double y, double
     // TODO - needs to be hooked
     @SuppressWarnings("rawtypes")
     public static void logEntitySize(Entity entity, List list) {
-        SpongeConfig<?> config = getActiveConfig(entity.worldObj);
-        if (!config.getConfig().getLogging().logEntityCollisionChecks()) {
+        SpongeConfigSnapshot config = getConfigSnapshot(entity.worldObj);
+        if (!config.logEntityCollisionChecks()) {
             return;
         }
-        int collisionWarnSize = config.getConfig().getEntity().getMaxCollisionSize();
+        int collisionWarnSize = config.getMaxCollisionSize();
 
         if (list == null) {
             return;
@@ -295,6 +296,18 @@ public static SpongeConfig<?> getActiveConfig(World world) {
         }
     }
 
+    /**
+     * Gets the cached snapshot of the config that is active for the given
+     * world. Prefer this over {@link #getActiveConfig(World)} for checks that
+     * run every tick.
+     *
+     * @param world The world
+     * @return The active config snapshot
+     */
+    public static SpongeConfigSnapshot getConfigSnapshot(World world) {
+        return ((IMixinWorld) world).getActiveConfig();
+    }
+
     public static void setBlockState(World world, int x, int y, int z, BlockState state) {
         setBlockState(world, new BlockPos(x, y, z), state);
     }
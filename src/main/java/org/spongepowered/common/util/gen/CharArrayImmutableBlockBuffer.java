@@ -0,0 +1,55 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.base.Preconditions;
+import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Immutable block buffer of any size, backed by an array of block state ids.
+ * The array passed to the constructor is copied to ensure that the instance
+ * is immutable.
+ */
+public final class CharArrayImmutableBlockBuffer extends AbstractBlockBuffer implements ImmutableBlockBuffer {
+
+    private final char[] blocks;
+
+    public CharArrayImmutableBlockBuffer(char[] blocks, Vector3i start, Vector3i size) {
+        super(start, size);
+
+        int minLength = size.getX() * size.getY() * size.getZ();
+        Preconditions.checkArgument(blocks.length >= minLength, "block array to small");
+        this.blocks = Arrays.copyOf(blocks, minLength);
+    }
+
+    @Override
+    public char[] getData() {
+        return this.blocks;
+    }
+
+}
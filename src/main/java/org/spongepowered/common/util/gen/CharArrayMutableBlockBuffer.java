@@ -0,0 +1,94 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
+import org.spongepowered.api.util.gen.MutableBlockBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Mutable block buffer of any size, backed by an array of block state ids.
+ */
+public final class CharArrayMutableBlockBuffer extends AbstractBlockBuffer implements MutableBlockBuffer {
+
+    private final char[] blocks;
+
+    public CharArrayMutableBlockBuffer(Vector3i start, Vector3i size) {
+        super(start, size);
+        this.blocks = new char[size.getX() * size.getY() * size.getZ()];
+    }
+
+    @Override
+    public char[] getData() {
+        return this.blocks;
+    }
+
+    @Override
+    public void setBlock(Vector3i position, BlockState block) {
+        setBlock(position.getX(), position.getY(), position.getZ(), block);
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockState block) {
+        checkRange(x, y, z);
+        this.blocks[getIndex(x, y, z)] = toStateId(block);
+    }
+
+    @Override
+    public void setBlockType(Vector3i position, BlockType type) {
+        setBlockType(position.getX(), position.getY(), position.getZ(), type);
+    }
+
+    @Override
+    public void setBlockType(int x, int y, int z, BlockType type) {
+        setBlock(x, y, z, type.getDefaultState());
+    }
+
+    @Override
+    public void setHorizontalLayer(int startY, int height, BlockState block) {
+        int minY = Math.max(startY, this.start.getY());
+        int maxY = Math.min(startY + height, this.end.getY() + 1);
+        if (minY >= maxY) {
+            return;
+        }
+        int layerSize = this.size.getX() * this.size.getZ();
+        Arrays.fill(this.blocks, (minY - this.start.getY()) * layerSize, (maxY - this.start.getY()) * layerSize, toStateId(block));
+    }
+
+    @Override
+    public void fill(BlockState block) {
+        Arrays.fill(this.blocks, toStateId(block));
+    }
+
+    @Override
+    public ImmutableBlockBuffer getImmutableClone() {
+        return new CharArrayImmutableBlockBuffer(this.blocks, this.start, this.size);
+    }
+
+}
@@ -68,9 +68,28 @@ public void setBlock(int x, int y, int z, BlockState block) {
 
     @Override
     public ImmutableBlockBuffer getImmutableClone() {
-        // TODO implement
-        throw new UnsupportedOperationException("Not yet supported");
+        // The primer is also written to directly by the chunk generator, so
+        // its array can't be shared. Copy it into chunk sections instead,
+        // which leaves out the sections that are only air.
+        short[] data = this.chunkPrimer.data;
+        char[][] sections = new char[SectionArrayImmutableChunkBuffer.SECTION_COUNT][];
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int primerIndex = x << 12 | z << 8;
+                for (int y = 0; y < 256; y++, primerIndex++) {
+                    char id = (char) data[primerIndex];
+                    if (id == 0) {
+                        continue;
+                    }
+                    char[] section = sections[y >> 4];
+                    if (section == null) {
+                        sections[y >> 4] = section = new char[SectionArrayImmutableChunkBuffer.SECTION_VOLUME];
+                    }
+                    section[(y & 0xf) << 8 | z << 4 | x] = id;
+                }
+            }
+        }
+        return new SectionArrayImmutableChunkBuffer(sections, getBlockMin().getX() >> 4, getBlockMin().getZ() >> 4);
     }
 
-
 }
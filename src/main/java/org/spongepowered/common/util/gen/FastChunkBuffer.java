@@ -31,6 +31,7 @@
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
+import org.spongepowered.common.interfaces.IMixinChunk;
 
 import java.util.Arrays;
 
@@ -73,6 +74,8 @@ public void setBlock(int x, int y, int z, BlockState block) {
         if (section == null && block.getType() != BlockTypes.AIR) {
             // Create new section first, so that we can store the block
             this.sectionArray[ySectionId] = section = createChunkSection(ySectionId);
+        } else {
+            ((IMixinChunk) this.chunk).unshareSection(ySectionId);
         }
         section.set(x & 0xf, y & 0xf, z & 0xf, (IBlockState) block);
     }
@@ -97,6 +100,8 @@ public void fill(BlockState block) {
             ExtendedBlockStorage section = this.sectionArray[ySectionId];
             if (section == null) {
                 this.sectionArray[ySectionId] = section = createChunkSection(ySectionId);
+            } else {
+                ((IMixinChunk) this.chunk).unshareSection(ySectionId);
             }
             char[] data = section.getData();
             Arrays.fill(data, blockStateId);
@@ -105,8 +110,7 @@ public void fill(BlockState block) {
 
     @Override
     public ImmutableBlockBuffer getImmutableClone() {
-        // TODO implement
-        throw new UnsupportedOperationException("Not yet supported");
+        return ((IMixinChunk) this.chunk).getSnapshot();
     }
 
 }
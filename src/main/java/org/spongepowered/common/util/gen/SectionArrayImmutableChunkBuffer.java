@@ -0,0 +1,131 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.util.gen.ImmutableBlockBuffer;
+import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.storage.SpongeChunkLayout;
+
+/**
+ * Immutable block buffer of one chunk, backed by one array of block state ids
+ * per chunk section, in the same layout as the sections of a chunk.
+ *
+ * <p>The section arrays are not copied. They may be shared with a live chunk
+ * as long as the chunk copies a shared section before it modifies it. A
+ * missing section contains only air.</p>
+ */
+public final class SectionArrayImmutableChunkBuffer implements ImmutableBlockBuffer {
+
+    public static final int SECTION_COUNT = 16;
+    public static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final char[][] sections;
+    private final int chunkX;
+    private final int chunkZ;
+    private final Vector3i minBlock;
+    private final Vector3i maxBlock;
+
+    public SectionArrayImmutableChunkBuffer(char[][] sections, int chunkX, int chunkZ) {
+        Preconditions.checkArgument(sections.length == SECTION_COUNT, "there must be one array per section");
+        this.sections = sections;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+
+        final Optional<Vector3i> worldCoords = SpongeChunkLayout.instance.toWorld(chunkX, 0, chunkZ);
+        Preconditions.checkArgument(worldCoords.isPresent(), "Chunk coordinates are not valid" + chunkX + ", " + chunkZ);
+        this.minBlock = worldCoords.get();
+        this.maxBlock = this.minBlock.add(SpongeChunkLayout.CHUNK_SIZE).sub(Vector3i.ONE);
+    }
+
+    private void checkRange(int x, int y, int z) {
+        if ((x >> 4) != this.chunkX || (z >> 4) != this.chunkZ || (y >> 8) != 0) {
+            throw new IndexOutOfBoundsException("Outside chunk: " + new Vector3i(x, y, z)
+                    + " is outside chunk (" + this.chunkX + "," + this.chunkZ
+                    + "), containing blocks " + this.minBlock + " to " + this.maxBlock);
+        }
+    }
+
+    @Override
+    public BlockState getBlock(int x, int y, int z) {
+        checkRange(x, y, z);
+        char[] section = this.sections[y >> 4];
+        if (section == null) {
+            return BlockTypes.AIR.getDefaultState();
+        }
+        return AbstractBlockBuffer.toBlockState(section[(y & 0xf) << 8 | (z & 0xf) << 4 | (x & 0xf)]);
+    }
+
+    @Override
+    public BlockState getBlock(Vector3i position) {
+        return getBlock(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Override
+    public BlockType getBlockType(Vector3i position) {
+        return getBlockType(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Override
+    public BlockType getBlockType(int x, int y, int z) {
+        return getBlock(x, y, z).getType();
+    }
+
+    @Override
+    public Vector3i getBlockMax() {
+        return this.maxBlock;
+    }
+
+    @Override
+    public Vector3i getBlockMin() {
+        return this.minBlock;
+    }
+
+    @Override
+    public Vector3i getBlockSize() {
+        return SpongeChunkLayout.CHUNK_SIZE;
+    }
+
+    @Override
+    public boolean containsBlock(Vector3i position) {
+        return containsBlock(position.getX(), position.getY(), position.getZ());
+    }
+
+    @Override
+    public boolean containsBlock(int x, int y, int z) {
+        return VecHelper.inBounds(x, y, z, this.minBlock, this.maxBlock);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "(min = " + this.getBlockMin() + ", max = " + this.getBlockMax() + ")";
+    }
+
+}
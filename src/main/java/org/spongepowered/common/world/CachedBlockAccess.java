@@ -0,0 +1,134 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.lang.ref.WeakReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads blocks and biomes of a world by primitive coordinates.
+ *
+ * <p>Each thread keeps the chunk it accessed last, so runs of accesses
+ * within a chunk skip the chunk lookup of the world. Blocks are read from
+ * the section arrays of the chunk, without creating a {@link BlockPos}.
+ * A cached chunk is dropped once it is unloaded.</p>
+ */
+public final class CachedBlockAccess {
+
+    // Shared by all worlds, and weak so that it doesn't keep an unloaded world alive
+    private static final ThreadLocal<WeakReference<Chunk>> lastChunk = new ThreadLocal<WeakReference<Chunk>>();
+
+    private final World world;
+    private final boolean debugWorld;
+
+    public CachedBlockAccess(World world) {
+        this.world = world;
+        // The chunks of the debug world don't hold their blocks
+        this.debugWorld = world.getWorldInfo().getTerrainType() == WorldType.DEBUG_WORLD;
+    }
+
+    /**
+     * Gets the block at a position, loading its chunk like
+     * {@link World#getBlockState(BlockPos)} does.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The block
+     */
+    public IBlockState getBlockState(int x, int y, int z) {
+        if (y < 0 || y >= 256) {
+            return Blocks.air.getDefaultState();
+        }
+        if (this.debugWorld) {
+            return this.world.getBlockState(new BlockPos(x, y, z));
+        }
+        ExtendedBlockStorage section = getChunk(x >> 4, z >> 4, true).getBlockStorageArray()[y >> 4];
+        if (section == null) {
+            return Blocks.air.getDefaultState();
+        }
+        return section.get(x & 15, y & 15, z & 15);
+    }
+
+    /**
+     * Gets the biome at a column, the same way
+     * {@link World#getBiomeGenForCoords(BlockPos)} does.
+     *
+     * @param x The x coordinate
+     * @param z The z coordinate
+     * @return The biome
+     */
+    public BiomeGenBase getBiome(int x, int z) {
+        Chunk chunk = getChunk(x >> 4, z >> 4, false);
+        if (chunk != null) {
+            int id = chunk.getBiomeArray()[(z & 15) << 4 | x & 15] & 255;
+            if (id != 255) {
+                BiomeGenBase biome = BiomeGenBase.getBiome(id);
+                return biome == null ? BiomeGenBase.plains : biome;
+            }
+        }
+        // Unloaded chunks and columns that were never computed
+        return this.world.getBiomeGenForCoords(new BlockPos(x, 0, z));
+    }
+
+    /**
+     * Gets the temperature at a position. The temperature of a biome depends
+     * on the height, which it can only be asked for with a {@link BlockPos}.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The temperature
+     */
+    public float getTemperature(int x, int y, int z) {
+        return getBiome(x, z).getFloatTemperature(new BlockPos(x, y, z));
+    }
+
+    @Nullable
+    private Chunk getChunk(int chunkX, int chunkZ, boolean load) {
+        WeakReference<Chunk> cached = lastChunk.get();
+        Chunk chunk = cached == null ? null : cached.get();
+        if (chunk != null && chunk.xPosition == chunkX && chunk.zPosition == chunkZ && chunk.getWorld() == this.world && chunk.isLoaded()) {
+            return chunk;
+        }
+        if (!load && !this.world.getChunkProvider().chunkExists(chunkX, chunkZ)) {
+            return null;
+        }
+        chunk = this.world.getChunkFromChunkCoords(chunkX, chunkZ);
+        lastChunk.set(new WeakReference<Chunk>(chunk));
+        return chunk;
+    }
+
+}
@@ -24,18 +24,87 @@
  */
 package org.spongepowered.common.world;
 
+import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.base.Optional;
-import net.minecraft.block.Block;
+import com.google.common.base.Predicate;
 import net.minecraft.block.material.Material;
-import org.spongepowered.api.block.BlockType;
-import org.spongepowered.api.block.BlockTypes;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.TeleportHelper;
 import org.spongepowered.api.world.World;
 
+import javax.annotation.Nullable;
+
+/**
+ * Finds safe locations by searching the columns around a location.
+ *
+ * <p>Columns are visited in rings of growing radius around the location.
+ * The blocks of a column are read once from its chunk section arrays, and
+ * the heights closest to the location are checked first. Only loaded chunks
+ * are searched unless chunk loading is requested.</p>
+ *
+ * <p>A location is safe if the blocks at the feet and head of a player match
+ * the body predicate and the block below, or the block it would fall onto,
+ * matches the floor predicate.</p>
+ */
 public class SpongeTeleportHelper implements TeleportHelper {
 
+    /**
+     * Blocks that a player can stand on.
+     */
+    public static final Predicate<BlockState> SAFE_FLOOR = new Predicate<BlockState>() {
+
+        @Override
+        public boolean apply(BlockState input) {
+            Material material = ((IBlockState) input).getBlock().getMaterial();
+            return !(material == Material.cactus || material == Material.fire || material == Material.lava);
+        }
+    };
+
+    /**
+     * Blocks that a player can be inside of.
+     */
+    public static final Predicate<BlockState> SAFE_BODY = new Predicate<BlockState>() {
+
+        @Override
+        public boolean apply(BlockState input) {
+            Material material = ((IBlockState) input).getBlock().getMaterial();
+            return material == Material.air || material == Material.grass || material == Material.plants
+                    || material == Material.water || material == Material.redstoneLight || material == Material.circuits
+                    || material == Material.snow || material == Material.portal || material == Material.web || material == Material.vine;
+        }
+    };
+
+    // The blocks read below and above a checked height
+    private static final int BELOW = 3;
+    private static final int ABOVE = 1;
+
+    private final Predicate<BlockState> floorPredicate;
+    private final Predicate<BlockState> bodyPredicate;
+
+    public SpongeTeleportHelper() {
+        this(SAFE_FLOOR, SAFE_BODY);
+    }
+
+    public SpongeTeleportHelper(Predicate<BlockState> floorPredicate, Predicate<BlockState> bodyPredicate) {
+        this.floorPredicate = floorPredicate;
+        this.bodyPredicate = bodyPredicate;
+    }
+
+    public Predicate<BlockState> getFloorPredicate() {
+        return this.floorPredicate;
+    }
+
+    public Predicate<BlockState> getBodyPredicate() {
+        return this.bodyPredicate;
+    }
+
     @Override
     public Optional<Location> getSafeLocation(Location location) {
         return getSafeLocation(location, DEFAULT_HEIGHT, DEFAULT_WIDTH);
@@ -43,165 +112,177 @@ public Optional<Location> getSafeLocation(Location location) {
 
     @Override
     public Optional<Location> getSafeLocation(Location location, final int height, final int width) {
-        // Check around the player first in a configurable radius:
-        final Optional<Location> safe = checkAboveAndBelowLocation(location, height, width);
-        if (safe.isPresent()) {
-            return Optional.of(new Location(safe.get().getExtent(), safe.get().getPosition().add(0.5, 0, 0.5)));
-        } else {
-            return Optional.absent();
-        }
+        return getSafeLocation(location, height, width, false);
     }
 
-    private Optional<Location> checkAboveAndBelowLocation(Location location, final int height, final int width) {
-        // For now this will just do a straight up block.
-        // Check the main level
-        Optional<Location> safe = checkAroundLocation(location, width);
-
-        if (safe.isPresent()) {
-            return safe;
-        }
-
-        // We've already checked zero right above this.
-        for (int currentLevel = 1; currentLevel <= height; currentLevel++) {
-            // Check above
-            safe = checkAroundLocation(new Location(location.getExtent(), location.getPosition().add(0, currentLevel, 0)), width);
-            if (safe.isPresent()) {
-                return safe;
+    /**
+     * Gets a safe location within a height and width of a location.
+     *
+     * @param location The location to start from
+     * @param height The vertical distance to search
+     * @param width The horizontal distance to search
+     * @param loadChunks Whether chunks that are not loaded are loaded and
+     *     searched, otherwise they are skipped
+     * @return The safe location, if one was found
+     */
+    public Optional<Location> getSafeLocation(Location location, int height, int width, boolean loadChunks) {
+        Vector3i position = location.getBlockPosition();
+        ColumnSearch search = new ColumnSearch((net.minecraft.world.World) location.getExtent(), position.getY(), Math.max(0, height), loadChunks);
+        int x = position.getX();
+        int z = position.getZ();
+
+        int y = search.findSafeHeight(x, z);
+        for (int radius = 1; y < 0 && radius <= width; radius++) {
+            for (int i = -radius; y < 0 && i <= radius; i++) {
+                y = search.findSafeHeight(x + i, z - radius);
+                if (y < 0) {
+                    y = search.findSafeHeight(x + i, z + radius);
+                }
             }
-
-            // Check below
-            safe = checkAroundLocation(new Location(location.getExtent(), location.getPosition().sub(0, currentLevel, 0)), width);
-            if (safe.isPresent()) {
-                return safe;
+            for (int i = -radius + 1; y < 0 && i < radius; i++) {
+                y = search.findSafeHeight(x - radius, z + i);
+                if (y < 0) {
+                    y = search.findSafeHeight(x + radius, z + i);
+                }
             }
         }
+        if (y < 0) {
+            return Optional.absent();
+        }
+        return Optional.of(new Location(location.getExtent(), new Vector3d(search.lastX + 0.5, y, search.lastZ + 0.5)));
+    }
 
-        return Optional.absent();
+    public boolean isSafeLocation(World world, Vector3i blockPos) {
+        ColumnSearch search = new ColumnSearch((net.minecraft.world.World) world, blockPos.getY(), 0, true);
+        return search.findSafeHeight(blockPos.getX(), blockPos.getZ()) >= 0;
     }
 
-    private Optional<Location> checkAroundLocation(Location location, final int radius) {
-        if (isSafeLocation((World) location.getExtent(), location.getBlockPosition())) {
-            return Optional.of(location);
+    /**
+     * The state of a single search. The blocks of the searched height range
+     * of a column are read into a buffer that is reused for every column.
+     */
+    private final class ColumnSearch {
+
+        private final net.minecraft.world.World world;
+        private final int centerY;
+        private final int height;
+        private final boolean loadChunks;
+        private final int minY;
+        private final IBlockState[] column;
+        @Nullable private Chunk chunk;
+        int lastX;
+        int lastZ;
+
+        ColumnSearch(net.minecraft.world.World world, int centerY, int height, boolean loadChunks) {
+            this.world = world;
+            this.centerY = centerY;
+            this.height = height;
+            this.loadChunks = loadChunks;
+            this.minY = centerY - height - BELOW;
+            this.column = new IBlockState[2 * height + BELOW + ABOVE + 1];
         }
 
-        // Now we're going to search in expanding concentric circles...
-        for (int currentRadius = 0; currentRadius <= radius; currentRadius++) {
-            Optional<Vector3i> safePosition = checkAroundSpecificDiameter(location, currentRadius);
-            if (safePosition.isPresent()) {
-                // If a safe area was found: Return the checkLoc, it is the safe location.
-                return Optional.of(new Location(location.getExtent(), safePosition.get()));
+        /**
+         * Gets the safe height of a column closest to the center height,
+         * preferring heights above it. The position of the last found
+         * height is kept.
+         *
+         * @return The height, or -1 if the column has no safe height
+         */
+        int findSafeHeight(int x, int z) {
+            Chunk chunk = getChunk(x >> 4, z >> 4);
+            if (chunk == null) {
+                return -1;
             }
+            readColumn(chunk, x & 15, z & 15);
+            for (int offset = 0; offset <= this.height; offset++) {
+                if (isSafe(this.centerY + offset)) {
+                    return found(x, z, this.centerY + offset);
+                }
+                if (offset != 0 && isSafe(this.centerY - offset)) {
+                    return found(x, z, this.centerY - offset);
+                }
+            }
+            return -1;
         }
 
-        return Optional.absent();
-    }
-
-    private Optional<Vector3i> checkAroundSpecificDiameter(Location checkLoc, final int radius) {
-        World world = (World) checkLoc.getExtent();
-        Vector3i blockPos = checkLoc.getBlockPosition();
-        // Check out at the radius provided.
-        blockPos = blockPos.add(radius, 0, 0);
-        if (isSafeLocation(world, blockPos)) {
-            return Optional.of(blockPos);
+        private int found(int x, int z, int y) {
+            this.lastX = x;
+            this.lastZ = z;
+            return y;
         }
 
-        // Move up to the first corner..
-        for (int i = 0; i < radius; i++) {
-            blockPos = blockPos.add(radius, 0, 0);
-            if (isSafeLocation(world, blockPos)) {
-                return Optional.of(blockPos);
+        @Nullable
+        private Chunk getChunk(int chunkX, int chunkZ) {
+            Chunk chunk = this.chunk;
+            if (chunk != null && chunk.xPosition == chunkX && chunk.zPosition == chunkZ) {
+                return chunk;
             }
-        }
-
-        // Move to the second corner..
-        for (int i = 0; i < radius * 2; i++) {
-            blockPos = blockPos.add(radius, 0, 0);
-            if (isSafeLocation(world, blockPos)) {
-                return Optional.of(blockPos);
+            if (!this.loadChunks && !isChunkLoaded(chunkX, chunkZ)) {
+                return null;
             }
+            this.chunk = chunk = this.world.getChunkFromChunkCoords(chunkX, chunkZ);
+            return chunk;
         }
 
-        // Move to the third corner..
-        for (int i = 0; i < radius * 2; i++) {
-            blockPos = blockPos.add(radius, 0, 0);
-            if (isSafeLocation(world, blockPos)) {
-                return Optional.of(blockPos);
+        private boolean isChunkLoaded(int chunkX, int chunkZ) {
+            if (this.world instanceof WorldServer) {
+                return ((WorldServer) this.world).theChunkProviderServer.chunkExists(chunkX, chunkZ);
             }
+            return this.world.getChunkProvider().chunkExists(chunkX, chunkZ);
         }
 
-        // Move to the last corner..
-        for (int i = 0; i < radius * 2; i++) {
-            blockPos = blockPos.add(radius, 0, 0);
-            if (isSafeLocation(world, blockPos)) {
-                return Optional.of(blockPos);
+        private void readColumn(Chunk chunk, int x, int z) {
+            ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+            // Everything above the top filled section is air
+            int top = chunk.getTopFilledSegment() + 15;
+            IBlockState air = Blocks.air.getDefaultState();
+            for (int i = 0; i < this.column.length; i++) {
+                int y = this.minY + i;
+                IBlockState state = air;
+                if (y >= 0 && y <= top) {
+                    ExtendedBlockStorage section = sections[y >> 4];
+                    if (section != null) {
+                        state = section.get(x, y & 15, z);
+                    }
+                }
+                this.column[i] = state;
             }
         }
 
-        // Move back to just before the starting point.
-        for (int i = 0; i < radius - 1; i++) {
-            blockPos = blockPos.add(radius, 0, 0);
-            if (isSafeLocation(world, blockPos)) {
-                return Optional.of(blockPos);
+        private boolean isSafe(int y) {
+            if (y - 1 <= 0 || y + 1 >= this.world.getHeight()) {
+                return false;
             }
-        }
-        return Optional.absent();
-    }
-
-    public boolean isSafeLocation(World world, Vector3i blockPos) {
-        final Vector3i up = new Vector3i(blockPos.add(Vector3i.UP));
-        final Vector3i down = new Vector3i(blockPos.sub(Vector3i.UP));
-
-        return !(!isBlockSafe(world, blockPos, false) || !isBlockSafe(world, up, false) || !isBlockSafe(world, down, true));
-
-    }
-
-    private boolean isBlockSafe(World world, Vector3i blockPos, boolean floorBlock) {
-        final BlockType block = world.getBlockType(blockPos);
-
-        if (blockPos.getY() <= 0) {
-            return false;
+            return isBody(y) && isBody(y + 1) && isFloor(y - 1);
         }
 
-        if (blockPos.getY() > world.getHeight()) {
-            return false;
+        private boolean isBody(int y) {
+            return SpongeTeleportHelper.this.bodyPredicate.apply((BlockState) this.column[y - this.minY]);
         }
 
-
-        if (floorBlock) {
-            //Floor is air so we'll fall, need to make sure we fall safely.
-            if (block == BlockTypes.AIR) {
-                final BlockType typeBelowPos = world.getBlockType(blockPos.sub(0, 1, 0));
-                final BlockType typeBelowPos2 = world.getBlockType(blockPos.sub(0, 2, 0));
-
-                // We'll fall too far, not safe
-                if (typeBelowPos == BlockTypes.AIR && typeBelowPos2 == BlockTypes.AIR) {
-                    return false;
-                }
-
-                // We'll fall onto a block, need to make sure its safe
-                if (typeBelowPos != BlockTypes.AIR && !isSafeFloorMaterial(((Block) typeBelowPos).getMaterial())) {
-                    return false;
-                }
-
-                // We'll fall through an air block to another, need to make sure its safe
-                return isSafeFloorMaterial(((Block) typeBelowPos2).getMaterial());
+        private boolean isFloor(int y) {
+            IBlockState floor = this.column[y - this.minY];
+            if (!isAir(floor)) {
+                return SpongeTeleportHelper.this.floorPredicate.apply((BlockState) floor);
             }
-
-            //We have a non-air floor, need to ensure its safe
-            return isSafeFloorMaterial(((Block) block).getMaterial());
+            // The floor is air so we'll fall, need to make sure we fall safely
+            IBlockState below = this.column[y - 1 - this.minY];
+            IBlockState below2 = this.column[y - 2 - this.minY];
+            // We'll fall too far, not safe
+            if (isAir(below) && isAir(below2)) {
+                return false;
+            }
+            // We'll fall onto a block, need to make sure its safe
+            if (!isAir(below) && !SpongeTeleportHelper.this.floorPredicate.apply((BlockState) below)) {
+                return false;
+            }
+            // We'll fall through an air block to another, need to make sure its safe
+            return SpongeTeleportHelper.this.floorPredicate.apply((BlockState) below2);
         }
 
-        //We need to make sure the block at our torso or head is safe
-        return isSafeBodyMaterial(((Block) block).getMaterial());
-    }
-
-    private boolean isSafeFloorMaterial(Material material) {
-        return !(material == Material.cactus || material == Material.fire || material == Material.lava);
-    }
-
-    private boolean isSafeBodyMaterial(Material material) {
-        return (material == Material.air || material == Material.grass || material == Material.plants ||
-        material == Material.water || material == Material.redstoneLight || material == Material.circuits ||
-        material == Material.snow || material == Material.portal || material == Material.web || material == Material.vine);
+        private boolean isAir(IBlockState state) {
+            return state.getBlock().getMaterial() == Material.air;
+        }
     }
 }
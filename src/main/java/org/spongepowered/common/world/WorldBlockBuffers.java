@@ -0,0 +1,256 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.api.util.gen.BlockBuffer;
+import org.spongepowered.common.interfaces.IMixinChunk;
+import org.spongepowered.common.util.gen.AbstractBlockBuffer;
+import org.spongepowered.common.util.gen.CharArrayMutableBlockBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes whole block volumes of a world section by section.
+ *
+ * <p>Blocks are copied between the block state id arrays of the chunk
+ * sections and the buffer directly. Writes do not update lighting and notify
+ * neighbours per block. Instead, every modified chunk gets its sky light
+ * regenerated and is relit on its next tick, and clients receive a single
+ * chunk data packet with the modified sections. Blocks with tile entities
+ * are still placed one by one, so that their tile entities are replaced.</p>
+ */
+public final class WorldBlockBuffers {
+
+    /**
+     * Notifies the neighbours of every changed block.
+     */
+    public static final int NOTIFY_NEIGHBORS = 1;
+
+    /**
+     * Sends the changed sections to the players that watch their chunks.
+     */
+    public static final int UPDATE_CLIENTS = 2;
+
+    private static final int SECTION_SIZE = 16;
+
+    private WorldBlockBuffers() {
+    }
+
+    /**
+     * Copies the blocks between the given positions, inclusive, into a new
+     * buffer. Chunks that are not loaded yet are loaded.
+     *
+     * @param world The world
+     * @param min The lowest position
+     * @param max The highest position
+     * @return The buffer
+     */
+    public static CharArrayMutableBlockBuffer read(World world, Vector3i min, Vector3i max) {
+        checkBounds(min, max);
+        CharArrayMutableBlockBuffer buffer = new CharArrayMutableBlockBuffer(min, max.sub(min).add(Vector3i.ONE));
+        char[] data = buffer.getData();
+
+        for (int chunkX = min.getX() >> 4; chunkX <= max.getX() >> 4; chunkX++) {
+            int minX = Math.max(min.getX(), chunkX << 4);
+            int width = Math.min(max.getX(), (chunkX << 4) + SECTION_SIZE - 1) - minX + 1;
+            for (int chunkZ = min.getZ() >> 4; chunkZ <= max.getZ() >> 4; chunkZ++) {
+                int minZ = Math.max(min.getZ(), chunkZ << 4);
+                int maxZ = Math.min(max.getZ(), (chunkZ << 4) + SECTION_SIZE - 1);
+                ExtendedBlockStorage[] sections = world.getChunkFromChunkCoords(chunkX, chunkZ).getBlockStorageArray();
+
+                for (int y = min.getY(); y <= max.getY(); y++) {
+                    ExtendedBlockStorage section = sections[y >> 4];
+                    if (section == null) {
+                        // Empty sections are air, which is already in the buffer
+                        y |= SECTION_SIZE - 1;
+                        continue;
+                    }
+                    char[] sectionData = section.getData();
+                    for (int z = minZ; z <= maxZ; z++) {
+                        System.arraycopy(sectionData, getSectionIndex(minX, y, z), data, buffer.getIndex(minX, y, z), width);
+                    }
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes all blocks of the buffer to the world at the same positions.
+     * Chunks that are not loaded yet are loaded.
+     *
+     * @param world The world
+     * @param buffer The blocks to write
+     * @param flags The {@link #NOTIFY_NEIGHBORS} and {@link #UPDATE_CLIENTS}
+     *     flags
+     */
+    public static void write(World world, BlockBuffer buffer, int flags) {
+        checkNotNull(buffer, "buffer");
+        Vector3i min = buffer.getBlockMin();
+        Vector3i max = buffer.getBlockMax();
+        checkBounds(min, max);
+        AbstractBlockBuffer source = toStateIdBuffer(buffer);
+        char[] data = source.getData();
+        List<BlockPos> tileEntityBlocks = new ArrayList<BlockPos>();
+
+        for (int chunkX = min.getX() >> 4; chunkX <= max.getX() >> 4; chunkX++) {
+            int minX = Math.max(min.getX(), chunkX << 4);
+            int maxX = Math.min(max.getX(), (chunkX << 4) + SECTION_SIZE - 1);
+            for (int chunkZ = min.getZ() >> 4; chunkZ <= max.getZ() >> 4; chunkZ++) {
+                int minZ = Math.max(min.getZ(), chunkZ << 4);
+                int maxZ = Math.min(max.getZ(), (chunkZ << 4) + SECTION_SIZE - 1);
+                Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+                ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+                int changedSections = 0;
+
+                for (int sectionY = min.getY() >> 4; sectionY <= max.getY() >> 4; sectionY++) {
+                    int minY = Math.max(min.getY(), sectionY << 4);
+                    int maxY = Math.min(max.getY(), (sectionY << 4) + SECTION_SIZE - 1);
+                    ExtendedBlockStorage section = sections[sectionY];
+                    char[] sectionData = section == null ? null : section.getData();
+                    boolean changed = false;
+
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            int index = source.getIndex(minX, y, z);
+                            int sectionIndex = getSectionIndex(minX, y, z);
+                            for (int x = minX; x <= maxX; x++, index++, sectionIndex++) {
+                                char newId = data[index];
+                                char oldId = sectionData == null ? 0 : sectionData[sectionIndex];
+                                if (newId == oldId) {
+                                    continue;
+                                }
+                                if (hasTileEntity(oldId) || hasTileEntity(newId)) {
+                                    tileEntityBlocks.add(new BlockPos(x, y, z));
+                                    continue;
+                                }
+                                if (sectionData == null) {
+                                    sections[sectionY] = section = new ExtendedBlockStorage(sectionY << 4, !world.provider.getHasNoSky());
+                                    sectionData = section.getData();
+                                } else if (!changed) {
+                                    ((IMixinChunk) chunk).unshareSection(sectionY);
+                                    sectionData = section.getData();
+                                }
+                                sectionData[sectionIndex] = newId;
+                                changed = true;
+                                if ((flags & NOTIFY_NEIGHBORS) != 0) {
+                                    world.notifyNeighborsOfStateChange(new BlockPos(x, y, z), getBlockState(newId).getBlock());
+                                }
+                            }
+                        }
+                    }
+
+                    if (changed) {
+                        // Recount the non-air and ticking blocks of the section
+                        section.removeInvalidBlocks();
+                        changedSections |= 1 << sectionY;
+                    }
+                }
+
+                if (changedSections != 0) {
+                    chunk.generateSkylightMap();
+                    chunk.setLightPopulated(false);
+                    chunk.setChunkModified();
+                    if ((flags & UPDATE_CLIENTS) != 0) {
+                        sendSections(world, chunk, changedSections);
+                    }
+                }
+            }
+        }
+
+        for (BlockPos pos : tileEntityBlocks) {
+            world.setBlockState(pos, getBlockState(data[source.getIndex(pos.getX(), pos.getY(), pos.getZ())]), flags);
+        }
+    }
+
+    private static void checkBounds(Vector3i min, Vector3i max) {
+        checkNotNull(min, "min");
+        checkNotNull(max, "max");
+        checkArgument(min.getX() <= max.getX() && min.getY() <= max.getY() && min.getZ() <= max.getZ(), "min must not be greater than max");
+        checkArgument(min.getY() >= 0 && max.getY() < 256, "y coordinates must be between 0 and 255");
+    }
+
+    private static AbstractBlockBuffer toStateIdBuffer(BlockBuffer buffer) {
+        if (buffer instanceof AbstractBlockBuffer) {
+            return (AbstractBlockBuffer) buffer;
+        }
+        Vector3i min = buffer.getBlockMin();
+        Vector3i max = buffer.getBlockMax();
+        CharArrayMutableBlockBuffer copy = new CharArrayMutableBlockBuffer(min, buffer.getBlockSize());
+        char[] data = copy.getData();
+        for (int y = min.getY(); y <= max.getY(); y++) {
+            for (int z = min.getZ(); z <= max.getZ(); z++) {
+                int index = copy.getIndex(min.getX(), y, z);
+                for (int x = min.getX(); x <= max.getX(); x++) {
+                    data[index++] = AbstractBlockBuffer.toStateId(buffer.getBlock(x, y, z));
+                }
+            }
+        }
+        return copy;
+    }
+
+    private static void sendSections(World world, Chunk chunk, int sectionMask) {
+        if (!(world instanceof WorldServer)) {
+            return;
+        }
+        WorldServer worldServer = (WorldServer) world;
+        S21PacketChunkData packet = new S21PacketChunkData(chunk, false, sectionMask);
+        for (Object player : worldServer.playerEntities) {
+            if (worldServer.getPlayerManager().isPlayerWatchingChunk((EntityPlayerMP) player, chunk.xPosition, chunk.zPosition)) {
+                ((EntityPlayerMP) player).playerNetServerHandler.sendPacket(packet);
+            }
+        }
+    }
+
+    private static int getSectionIndex(int x, int y, int z) {
+        return (y & 0xf) << 8 | (z & 0xf) << 4 | (x & 0xf);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static IBlockState getBlockState(char id) {
+        IBlockState state = (IBlockState) Block.BLOCK_STATE_IDS.getByValue(id);
+        return state == null ? Blocks.air.getDefaultState() : state;
+    }
+
+    private static boolean hasTileEntity(char id) {
+        return id != 0 && getBlockState(id).getBlock().hasTileEntity();
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import com.flowpowered.math.vector.Vector2i;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.biome.BiomeGenBase;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.api.util.gen.BiomeBuffer;
+import org.spongepowered.api.world.gen.GeneratorPopulator;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.interfaces.IMixinWorld;
+import org.spongepowered.common.util.gen.FastChunkBuffer;
+import org.spongepowered.common.util.gen.ObjectArrayMutableBiomeBuffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Generates many new chunks at once, running the {@link GeneratorPopulator}s
+ * of the chunks in parallel.
+ *
+ * <p>Generation happens in three stages. The base terrain and the biomes of
+ * all chunks are generated on the main thread, as the chunk generators of
+ * Minecraft are not thread-safe. The generator populators then run for all
+ * chunks at once on a worker pool, which is safe because they only modify
+ * the blocks of their own chunk. Finally, the chunks are added to the world
+ * and populated on the main thread, as populators cross chunk borders.</p>
+ *
+ * <p>The pool is only used if {@code generation-threads} is set in the global
+ * config. Otherwise, and for worlds without generator populators, chunks are
+ * loaded one by one like any other chunk.</p>
+ */
+public final class ChunkGenerationPipeline {
+
+    private static final ThreadLocal<List<GeneratedChunk>> deferredChunks = new ThreadLocal<List<GeneratedChunk>>();
+    @Nullable private static ListeningExecutorService executor;
+
+    private ChunkGenerationPipeline() {
+    }
+
+    /**
+     * Called for every newly generated chunk. If the chunk is generated by
+     * this pipeline, its generator populators are deferred.
+     *
+     * @param chunk The newly generated chunk
+     * @return Whether the generator populators should not run now
+     */
+    public static boolean deferGeneratorPopulators(Chunk chunk) {
+        List<GeneratedChunk> chunks = deferredChunks.get();
+        if (chunks == null) {
+            return false;
+        }
+        chunks.add(new GeneratedChunk(chunk));
+        return true;
+    }
+
+    /**
+     * Loads or generates the given chunks. Must be called on the main thread.
+     *
+     * @param world The world
+     * @param positions The positions of the chunks
+     * @return The chunks, in the same order as the positions
+     */
+    public static List<Chunk> loadOrGenerateChunks(WorldServer world, List<ChunkCoordIntPair> positions) {
+        ChunkProviderServer provider = world.theChunkProviderServer;
+        List<GeneratorPopulator> populators = ((IMixinWorld) world).getGeneratorPopulators();
+        ListeningExecutorService executor = getExecutor();
+        if (populators.isEmpty() || executor == null || positions.size() < 2) {
+            List<Chunk> chunks = new ArrayList<Chunk>(positions.size());
+            for (ChunkCoordIntPair pos : positions) {
+                chunks.add(provider.loadChunk(pos.chunkXPos, pos.chunkZPos));
+            }
+            return chunks;
+        }
+
+        // Stage 1: base terrain and biomes on the main thread
+        List<GeneratedChunk> generated = new ArrayList<GeneratedChunk>();
+        deferredChunks.set(generated);
+        try {
+            for (ChunkCoordIntPair pos : positions) {
+                if (!provider.chunkExists(pos.chunkXPos, pos.chunkZPos) && !isSaved(provider, pos.chunkXPos, pos.chunkZPos)) {
+                    ((IMixinChunkProviderServer) provider).generateChunk(pos.chunkXPos, pos.chunkZPos);
+                }
+            }
+        } finally {
+            deferredChunks.remove();
+        }
+        for (GeneratedChunk chunk : generated) {
+            chunk.biomes = world.getWorldChunkManager().getBiomeGenAt(null, chunk.chunk.xPosition * 16, chunk.chunk.zPosition * 16, 16, 16, true);
+        }
+
+        // Stage 2: generator populators on the worker pool
+        List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>(generated.size());
+        for (GeneratedChunk chunk : generated) {
+            chunk.populators = populators;
+            futures.add(executor.submit(chunk));
+        }
+        try {
+            Futures.allAsList(futures).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running generator populators", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to run generator populators", e.getCause());
+        }
+
+        // Stage 3: add and populate on the main thread
+        for (GeneratedChunk chunk : generated) {
+            ((IMixinChunkProviderServer) provider).addGeneratedChunk(chunk.chunk);
+        }
+        List<Chunk> chunks = new ArrayList<Chunk>(positions.size());
+        for (ChunkCoordIntPair pos : positions) {
+            chunks.add(provider.loadChunk(pos.chunkXPos, pos.chunkZPos));
+        }
+        return chunks;
+    }
+
+    /**
+     * Gets whether a chunk was saved to the chunk loader of a world. If this
+     * can't be told, the chunk is assumed to be saved.
+     *
+     * @param provider The chunk provider of the world
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return Whether the chunk was saved
+     */
+    public static boolean isSaved(ChunkProviderServer provider, int x, int z) {
+        IChunkLoader loader = ((IMixinChunkProviderServer) provider).getChunkLoader();
+        if (!(loader instanceof IMixinAnvilChunkLoader)) {
+            // Can't tell, let the chunk provider decide
+            return true;
+        }
+        try {
+            return ((IMixinAnvilChunkLoader) loader).chunkExists(x, z);
+        } catch (IOException e) {
+            // Never risk overwriting a chunk that could not be checked
+            return true;
+        }
+    }
+
+    @Nullable
+    private static synchronized ListeningExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = Sponge.getGlobalConfig().getConfig().getWorld().getGenerationThreads();
+            if (threads <= 0) {
+                return null;
+            }
+            executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("Sponge Generator Populator #%d")
+                    .setDaemon(true)
+                    .build()));
+        }
+        return executor;
+    }
+
+    private static final class GeneratedChunk implements Runnable {
+
+        final Chunk chunk;
+        BiomeGenBase[] biomes;
+        List<GeneratorPopulator> populators;
+
+        GeneratedChunk(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void run() {
+            FastChunkBuffer buffer = new FastChunkBuffer(this.chunk);
+            BiomeBuffer biomeBuffer = new ObjectArrayMutableBiomeBuffer(this.biomes, new Vector2i(this.chunk.xPosition * 16,
+                    this.chunk.zPosition * 16), new Vector2i(16, 16));
+            org.spongepowered.api.world.World world = (org.spongepowered.api.world.World) this.chunk.getWorld();
+            for (GeneratorPopulator populator : this.populators) {
+                populator.populate(world, buffer, biomeBuffer);
+            }
+            // The generator calculated these before the populators ran
+            this.chunk.generateSkylightMap();
+        }
+    }
+
+}
@@ -26,14 +26,16 @@
 
 import com.flowpowered.math.vector.Vector2i;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.biome.BiomeGenBase;
 import net.minecraft.world.biome.WorldChunkManager;
 import net.minecraft.world.gen.layer.IntCache;
-import org.spongepowered.api.util.gen.MutableBiomeBuffer;
 import org.spongepowered.api.world.gen.BiomeGenerator;
 import org.spongepowered.common.util.gen.ByteArrayMutableBiomeBuffer;
-import org.spongepowered.common.util.gen.ObjectArrayMutableBiomeBuffer;
 
 import java.util.Arrays;
 import java.util.List;
@@ -46,12 +48,35 @@
  * <p>This class does the opposite of {@link SpongeBiomeGenerator}, that class
  * wraps a world chunk manager so that it is usable as a {@link BiomeGenerator}
  * .</p>
+ *
+ * <p>Biomes are generated in tiles of 16x16 blocks, which are kept in a
+ * thread-safe LRU cache. Structure placement and spawn searches ask for the
+ * same areas over and over again, so most requests are answered by copying
+ * from cached tiles instead of running the biome generator again.</p>
  */
 public final class CustomWorldChunkManager extends WorldChunkManager {
 
-    private static final Vector2i CACHED_AREA_SIZE = new Vector2i(40, 40);
+    private static final int TILE_SIZE = 16;
+    private static final int MAX_CACHED_TILES = 1024;
+
+    private final ThreadLocal<ByteArrayMutableBiomeBuffer> tileBuffer = new ThreadLocal<ByteArrayMutableBiomeBuffer>() {
 
-    private final ByteArrayMutableBiomeBuffer areaForGeneration = new ByteArrayMutableBiomeBuffer(Vector2i.ZERO, CACHED_AREA_SIZE);
+        @Override
+        protected ByteArrayMutableBiomeBuffer initialValue() {
+            ByteArrayMutableBiomeBuffer buffer = new ByteArrayMutableBiomeBuffer(Vector2i.ZERO, new Vector2i(TILE_SIZE, TILE_SIZE));
+            buffer.detach();
+            return buffer;
+        }
+    };
+    private final LoadingCache<Long, byte[]> tiles = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TILES)
+            .build(new CacheLoader<Long, byte[]>() {
+
+                @Override
+                public byte[] load(Long key) throws Exception {
+                    return generateTile(key);
+                }
+            });
     final BiomeGenerator biomeGenerator;
 
     /**
@@ -78,6 +103,66 @@ private CustomWorldChunkManager(BiomeGenerator biomeGenerator) {
         }
     }
 
+    private byte[] generateTile(long key) {
+        int tileX = (int) key;
+        int tileZ = (int) (key >> 32);
+
+        // Each thread reuses its own buffer, the result is copied as the
+        // cached tiles must not change
+        ByteArrayMutableBiomeBuffer buffer = this.tileBuffer.get();
+        buffer.reuse(new Vector2i(tileX * TILE_SIZE, tileZ * TILE_SIZE));
+        try {
+            this.biomeGenerator.generateBiomes(buffer);
+            return Arrays.copyOf(buffer.detach(), TILE_SIZE * TILE_SIZE);
+        } finally {
+            // A failing generator must not leave the buffer unusable for the thread
+            if (!buffer.isDetached()) {
+                buffer.detach();
+            }
+        }
+    }
+
+    /**
+     * Gets the ids of the biomes in the given area, in x then z order.
+     */
+    private byte[] getBiomeIds(int xStart, int zStart, int xSize, int zSize) {
+        byte[] biomes = new byte[xSize * zSize];
+        int xEnd = xStart + xSize - 1;
+        int zEnd = zStart + zSize - 1;
+
+        for (int tileZ = zStart >> 4; tileZ <= zEnd >> 4; tileZ++) {
+            int minZ = Math.max(zStart, tileZ << 4);
+            int maxZ = Math.min(zEnd, (tileZ << 4) + TILE_SIZE - 1);
+            for (int tileX = xStart >> 4; tileX <= xEnd >> 4; tileX++) {
+                int minX = Math.max(xStart, tileX << 4);
+                int width = Math.min(xEnd, (tileX << 4) + TILE_SIZE - 1) - minX + 1;
+                byte[] tile = this.tiles.getUnchecked(ChunkCoordIntPair.chunkXZ2Int(tileX, tileZ));
+                for (int z = minZ; z <= maxZ; z++) {
+                    System.arraycopy(tile, (z & 0xf) << 4 | (minX & 0xf), biomes, (z - zStart) * xSize + (minX - xStart), width);
+                }
+            }
+        }
+        return biomes;
+    }
+
+    /**
+     * Gets a lookup table of the ids of the given biomes.
+     */
+    private static boolean[] toBiomeIdSet(@SuppressWarnings("rawtypes") List biomes) {
+        boolean[] set = new boolean[256];
+        for (Object biome : biomes) {
+            if (biome != null) {
+                set[((BiomeGenBase) biome).biomeID & 0xff] = true;
+            }
+        }
+        return set;
+    }
+
+    private static BiomeGenBase toBiome(BiomeGenBase[] biomeById, byte id) {
+        BiomeGenBase biome = biomeById[id & 0xff];
+        return biome == null ? BiomeGenBase.ocean : biome;
+    }
+
     /**
      * Return a list of biomes for the specified blocks. Args: listToReuse, x,
      * y, width, length, cacheFlag (if false, don't check biomeCache to avoid
@@ -102,47 +187,28 @@ public BiomeGenBase[] getBiomesForGeneration(BiomeGenBase[] biomeArrayZoomedOut,
             biomeArrayZoomedOut = new BiomeGenBase[xSize * zSize];
         }
 
-        // Transform to normal scale
-        int xStartBlock = xStart * 4;
-        int zStartBlock = zStart * 4;
+        // Get biomes at normal scale
         int xSizeBlock = xSize * 4;
-        int zSizeBlock = zSize * 4;
-
-        // Get biomes
-        ByteArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartBlock, zStartBlock, xSizeBlock, zSizeBlock);
-        this.biomeGenerator.generateBiomes(buffer);
+        byte[] biomesForBlocks = getBiomeIds(xStart * 4, zStart * 4, xSizeBlock, zSize * 4);
 
         // Downscale
-        byte[] biomesForBlocks = buffer.detach();
         BiomeGenBase[] biomeById = BiomeGenBase.getBiomeGenArray();
-        for (int i = 0; i < biomeArrayZoomedOut.length; i++) {
-            BiomeGenBase biome = biomeById[biomesForBlocks[i * 4] & 0xff];
-            biomeArrayZoomedOut[i] = (biome == null ? BiomeGenBase.ocean : biome);
+        for (int i = 0; i < xSize * zSize; i++) {
+            int x = i % xSize;
+            int z = i / xSize;
+            biomeArrayZoomedOut[i] = toBiome(biomeById, biomesForBlocks[z * 4 * xSizeBlock + x * 4]);
         }
 
         return biomeArrayZoomedOut;
     }
 
-    private ByteArrayMutableBiomeBuffer getBiomeBuffer(int xStart, int zStart, int xSize, int zSize) {
-        if (xSize == CACHED_AREA_SIZE.getX()
-                && zSize == CACHED_AREA_SIZE.getY()
-                && this.areaForGeneration.isDetached()) {
-            this.areaForGeneration.reuse(new Vector2i(xStart, zStart));
-            return this.areaForGeneration;
-        } else {
-            return new ByteArrayMutableBiomeBuffer(new Vector2i(xStart, zStart), new Vector2i(xSize, zSize));
-        }
-    }
-
     @Override
     public float[] getRainfall(float[] rainfallArray, int x, int z, int xSize, int zSize) {
         if (rainfallArray == null || rainfallArray.length < xSize * zSize) {
             rainfallArray = new float[xSize * zSize];
         }
 
-        ByteArrayMutableBiomeBuffer buffer = getBiomeBuffer(x, z, xSize, zSize);
-        this.biomeGenerator.generateBiomes(buffer);
-        byte[] biomes = buffer.detach();
+        byte[] biomes = getBiomeIds(x, z, xSize, zSize);
         BiomeGenBase[] biomeById = BiomeGenBase.getBiomeGenArray();
 
         for (int i = 0; i < xSize * zSize; i++) {
@@ -169,19 +235,21 @@ public BlockPos findBiomePosition(int xCenter, int zCenter, int range, @Suppress
         int xSizeSegments = xMaxSegment - xStartSegment + 1;
         int zSizeSegments = zMaxSegment - zStartSegment + 1;
 
-        ByteArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartSegment << 2, zStartSegment << 2, xSizeSegments << 2, zSizeSegments << 2);
-        this.biomeGenerator.generateBiomes(buffer);
-        byte[] biomes = buffer.detach();
+        int xSizeBlocks = xSizeSegments << 2;
+        byte[] biomes = getBiomeIds(xStartSegment << 2, zStartSegment << 2, xSizeBlocks, zSizeSegments << 2);
+        boolean[] searchingForIds = toBiomeIdSet(searchingFor);
 
         BlockPos blockpos = null;
         int foundPositions = 0;
 
         for (int i = 0; i < xSizeSegments * zSizeSegments; ++i) {
-            BiomeGenBase foundBiome = BiomeGenBase.getBiome(biomes[i << 2] & 0xff);
+            int xSegment = i % xSizeSegments;
+            int zSegment = i / xSizeSegments;
+            byte foundBiome = biomes[(zSegment << 2) * xSizeBlocks + (xSegment << 2)];
 
-            if (searchingFor.contains(foundBiome) && (blockpos == null || random.nextInt(foundPositions + 1) == 0)) {
-                int x = xStartSegment + i % xSizeSegments << 2;
-                int z = zStartSegment + i / xSizeSegments << 2;
+            if (searchingForIds[foundBiome & 0xff] && (blockpos == null || random.nextInt(foundPositions + 1) == 0)) {
+                int x = xStartSegment + xSegment << 2;
+                int z = zStartSegment + zSegment << 2;
                 blockpos = new BlockPos(x, 0, z);
                 foundPositions++;
             }
@@ -200,14 +268,14 @@ public boolean areBiomesViable(int xCenter, int zCenter, int range, @SuppressWar
         int xSizeSegments = xMaxSegment - xStartSegment + 1;
         int zSizeSegments = zMaxSegment - zStartSegment + 1;
 
-        ByteArrayMutableBiomeBuffer buffer = getBiomeBuffer(xStartSegment << 2, zStartSegment << 2, xSizeSegments << 2, zSizeSegments << 2);
-        this.biomeGenerator.generateBiomes(buffer);
-        byte[] biomes = buffer.detach();
+        int xSizeBlocks = xSizeSegments << 2;
+        byte[] biomes = getBiomeIds(xStartSegment << 2, zStartSegment << 2, xSizeBlocks, zSizeSegments << 2);
+        boolean[] searchingForIds = toBiomeIdSet(searchingForBiomes);
 
         for (int i = 0; i < xSizeSegments * zSizeSegments; ++i) {
-            BiomeGenBase biomegenbase = BiomeGenBase.getBiome(biomes[i << 2] & 0xff);
+            byte biome = biomes[(i / xSizeSegments << 2) * xSizeBlocks + (i % xSizeSegments << 2)];
 
-            if (!searchingForBiomes.contains(biomegenbase)) {
+            if (!searchingForIds[biome & 0xff]) {
                 return false;
             }
         }
@@ -219,18 +287,23 @@ public boolean areBiomesViable(int xCenter, int zCenter, int range, @SuppressWar
     public BiomeGenBase[] loadBlockGeneratorData(BiomeGenBase[] biomeArray, int startX, int startZ, int sizeX, int sizeZ) {
         if (biomeArray == null || biomeArray.length < sizeX * sizeZ) {
             biomeArray = new BiomeGenBase[sizeX * sizeZ];
-        } else {
-            // Biome generators don't have to set every position. If we set
-            // all positions to ocean first, every position not set will be
-            // ocean, and not some random biome from the last time this array
-            // was used
-            Arrays.fill(biomeArray, BiomeGenBase.ocean);
         }
 
-        MutableBiomeBuffer biomeArea = new ObjectArrayMutableBiomeBuffer(biomeArray, new Vector2i(startX, startZ), new Vector2i(sizeX, sizeZ));
-        this.biomeGenerator.generateBiomes(biomeArea);
+        // Positions not set by the biome generator are ocean, the default id
+        // of the tile buffers
+        byte[] biomes = getBiomeIds(startX, startZ, sizeX, sizeZ);
+        BiomeGenBase[] biomeById = BiomeGenBase.getBiomeGenArray();
+        for (int i = 0; i < sizeX * sizeZ; i++) {
+            biomeArray[i] = toBiome(biomeById, biomes[i]);
+        }
 
         return biomeArray;
     }
 
+    @Override
+    public void cleanupCache() {
+        super.cleanupCache();
+        this.tiles.cleanUp();
+    }
+
 }
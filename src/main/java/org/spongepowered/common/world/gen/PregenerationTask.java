@@ -0,0 +1,378 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.util.SpongeHooks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Generates and saves every chunk within a shape around a center chunk.
+ *
+ * <p>Chunks are visited in a square spiral starting at the center, so the
+ * neighbours of a chunk are generated shortly after it and it is populated
+ * while still loaded. Chunks that are already loaded or saved are skipped.
+ * The generated chunks are kept loaded until the limit of the world config
+ * is reached, then the oldest ones are saved and unloaded right away. A
+ * chunk is only unloaded once it was populated, which happens when its
+ * neighbours in the next ring are generated, so the last rings may stay
+ * loaded beyond the limit.</p>
+ *
+ * <p>The progress is the index in the spiral of the oldest chunk that was
+ * not unloaded yet. It is written to the world directory so the task can be
+ * resumed after a restart. The chunks that were still loaded are saved
+ * with the world, so a resumed task loads them again instead of skipping
+ * them, to get them populated.</p>
+ */
+public final class PregenerationTask {
+
+    public enum Shape {
+        SQUARE,
+        CIRCLE
+    }
+
+    static final String FILE_NAME = "sponge_pregen.dat";
+
+    // The chunks generated between two checks of the tick budget
+    private static final int BATCH_SIZE = 4;
+    private static final long PERSIST_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    private final WorldServer world;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final Shape shape;
+    private final long total;
+    private final Queue<LoadedChunk> loadedChunks = new ArrayDeque<LoadedChunk>();
+    private long index;
+    // Saved chunks before this index are loaded rather than skipped
+    private final long reloadUntil;
+    private int generated;
+    private long lastPersist;
+
+    PregenerationTask(WorldServer world, int centerX, int centerZ, int radius, Shape shape, long index, long reloadUntil) {
+        this.world = world;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.shape = shape;
+        this.total = (2L * radius + 1) * (2L * radius + 1);
+        this.index = index;
+        this.reloadUntil = reloadUntil;
+        this.lastPersist = System.nanoTime();
+    }
+
+    public WorldServer getWorld() {
+        return this.world;
+    }
+
+    public int getCenterX() {
+        return this.centerX;
+    }
+
+    public int getCenterZ() {
+        return this.centerZ;
+    }
+
+    public int getRadius() {
+        return this.radius;
+    }
+
+    public Shape getShape() {
+        return this.shape;
+    }
+
+    /**
+     * Gets the number of chunks this task generated since it was started or
+     * resumed.
+     *
+     * @return The number of generated chunks
+     */
+    public int getGenerated() {
+        return this.generated;
+    }
+
+    /**
+     * Gets the fraction of the spiral that was visited, between 0 and 1.
+     *
+     * @return The progress
+     */
+    public double getProgress() {
+        return (double) this.index / this.total;
+    }
+
+    public boolean isDone() {
+        return this.index >= this.total && this.loadedChunks.isEmpty();
+    }
+
+    /**
+     * Generates the next chunks, called once per tick.
+     */
+    void tick() {
+        SpongeConfigSnapshot config = SpongeHooks.getConfigSnapshot(this.world);
+        long budget = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getPregenTickBudget()));
+        int maxLoaded = Math.max(1, config.getPregenMaxLoadedChunks());
+        ChunkProviderServer provider = this.world.theChunkProviderServer;
+
+        long start = System.nanoTime();
+        List<ChunkCoordIntPair> positions = new ArrayList<ChunkCoordIntPair>(BATCH_SIZE);
+        List<Long> indices = new ArrayList<Long>(BATCH_SIZE);
+        while (this.index < this.total && System.nanoTime() - start < budget) {
+            positions.clear();
+            indices.clear();
+            while (positions.size() < BATCH_SIZE && this.index < this.total) {
+                long index = this.index++;
+                ChunkCoordIntPair offset = getSpiralOffset(index);
+                if (this.shape == Shape.CIRCLE && (long) offset.chunkXPos * offset.chunkXPos + (long) offset.chunkZPos * offset.chunkZPos
+                        > (long) this.radius * this.radius) {
+                    continue;
+                }
+                int x = this.centerX + offset.chunkXPos;
+                int z = this.centerZ + offset.chunkZPos;
+                if (provider.chunkExists(x, z) || index >= this.reloadUntil && ChunkGenerationPipeline.isSaved(provider, x, z)) {
+                    continue;
+                }
+                positions.add(new ChunkCoordIntPair(x, z));
+                indices.add(index);
+            }
+            if (!positions.isEmpty()) {
+                List<Chunk> chunks = ChunkGenerationPipeline.loadOrGenerateChunks(this.world, positions);
+                for (int i = 0; i < chunks.size(); i++) {
+                    this.loadedChunks.add(new LoadedChunk(chunks.get(i), indices.get(i)));
+                }
+                this.generated += chunks.size();
+            }
+            unloadChunks(maxLoaded, false);
+        }
+
+        if (this.index >= this.total) {
+            // The chunks at the edge never get the neighbours they need to be populated
+            unloadChunks(0, true);
+        }
+        if (System.nanoTime() - this.lastPersist > PERSIST_INTERVAL) {
+            persist();
+        }
+    }
+
+    /**
+     * Saves and unloads the oldest generated chunks until at most the given
+     * number is left. Chunks that are in use by the world are only saved.
+     *
+     * <p>Unless forced, this stops at the oldest chunk that was not populated
+     * yet, as a chunk that is saved before it is populated would never be
+     * visited again.</p>
+     */
+    private void unloadChunks(int limit, boolean force) {
+        ChunkProviderServer provider = this.world.theChunkProviderServer;
+        while (this.loadedChunks.size() > limit) {
+            Chunk chunk = this.loadedChunks.peek().chunk;
+            // Skip chunks that were unloaded, they were saved then
+            if (!provider.chunkExists(chunk.xPosition, chunk.zPosition) || provider.provideChunk(chunk.xPosition, chunk.zPosition) != chunk) {
+                this.loadedChunks.poll();
+                continue;
+            }
+            if (!force && !chunk.isTerrainPopulated()) {
+                break;
+            }
+            this.loadedChunks.poll();
+            if (isInUse(chunk)) {
+                ((IMixinChunkProviderServer) provider).saveChunk(chunk);
+            } else {
+                ((IMixinChunkProviderServer) provider).unloadChunk(chunk);
+            }
+        }
+    }
+
+    private boolean isInUse(Chunk chunk) {
+        // Same as the spawn check of ChunkProviderServer.dropChunk
+        if (this.world.provider.canRespawnHere()) {
+            BlockPos spawn = this.world.getSpawnPoint();
+            int dx = chunk.xPosition * 16 + 8 - spawn.getX();
+            int dz = chunk.zPosition * 16 + 8 - spawn.getZ();
+            if (dx >= -128 && dx <= 128 && dz >= -128 && dz <= 128) {
+                return true;
+            }
+        }
+        for (Object player : this.world.playerEntities) {
+            if (this.world.getPlayerManager().isPlayerWatchingChunk((EntityPlayerMP) player, chunk.xPosition, chunk.zPosition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saves and unloads all generated chunks and stops. The progress is
+     * deleted, so the task is not resumed after a restart.
+     */
+    void stop() {
+        unloadChunks(0, true);
+        deleteFile();
+    }
+
+    /**
+     * Writes the progress to the world directory, or deletes it if the task
+     * is done.
+     */
+    void persist() {
+        this.lastPersist = System.nanoTime();
+        if (isDone()) {
+            deleteFile();
+            return;
+        }
+        File file = getFile(this.world);
+
+        NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("CenterX", this.centerX);
+        compound.setInteger("CenterZ", this.centerZ);
+        compound.setInteger("Radius", this.radius);
+        compound.setString("Shape", this.shape.name());
+        compound.setLong("Index", this.loadedChunks.isEmpty() ? this.index : this.loadedChunks.peek().index);
+        compound.setLong("ReloadUntil", this.loadedChunks.isEmpty() ? 0 : this.index);
+        File tempFile = new File(file.getParentFile(), FILE_NAME + "_new");
+        try {
+            OutputStream out = new FileOutputStream(tempFile);
+            try {
+                CompressedStreamTools.writeCompressed(compound, out);
+            } finally {
+                out.close();
+            }
+            if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        } catch (IOException e) {
+            SpongeHooks.logSevere("Could not save the pre-generation progress of world {0}: {1}", this.world.getWorldInfo().getWorldName(), e);
+        }
+    }
+
+    private void deleteFile() {
+        File file = getFile(this.world);
+        if (file.exists() && !file.delete()) {
+            SpongeHooks.logWarning("Could not delete the pre-generation progress of world {0}", this.world.getWorldInfo().getWorldName());
+        }
+    }
+
+    /**
+     * Reads the progress of an unfinished task from the world directory.
+     *
+     * @param world The world
+     * @return The task, or null if there is none
+     */
+    @Nullable
+    static PregenerationTask load(WorldServer world) {
+        File file = getFile(world);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            NBTTagCompound compound;
+            InputStream in = new FileInputStream(file);
+            try {
+                compound = CompressedStreamTools.readCompressed(in);
+            } finally {
+                in.close();
+            }
+            Shape shape = Shape.valueOf(compound.getString("Shape"));
+            return new PregenerationTask(world, compound.getInteger("CenterX"), compound.getInteger("CenterZ"), compound.getInteger("Radius"), shape,
+                    compound.getLong("Index"), compound.getLong("ReloadUntil"));
+        } catch (Exception e) {
+            SpongeHooks.logSevere("Could not read the pre-generation progress of world {0}: {1}", world.getWorldInfo().getWorldName(), e);
+            return null;
+        }
+    }
+
+    private static File getFile(WorldServer world) {
+        return new File(world.getSaveHandler().getWorldDirectory(), FILE_NAME);
+    }
+
+    /**
+     * Gets the offset from the center of the chunk at an index in a square
+     * spiral. The spiral visits the center first, then each ring around it.
+     *
+     * @param index The index in the spiral
+     * @return The offset of the chunk
+     */
+    static ChunkCoordIntPair getSpiralOffset(long index) {
+        if (index == 0) {
+            return new ChunkCoordIntPair(0, 0);
+        }
+        // Ring r holds the indices from (2r - 1)^2 to (2r + 1)^2 - 1
+        long ring = (long) ((Math.sqrt(index) + 1) / 2);
+        while ((2 * ring + 1) * (2 * ring + 1) <= index) {
+            ring++;
+        }
+        while ((2 * ring - 1) * (2 * ring - 1) > index) {
+            ring--;
+        }
+        int r = (int) ring;
+        long offset = index - (2 * ring - 1) * (2 * ring - 1);
+        int side = (int) (offset / (2 * ring));
+        int position = (int) (offset % (2 * ring));
+        switch (side) {
+            case 0:
+                return new ChunkCoordIntPair(r, -r + 1 + position);
+            case 1:
+                return new ChunkCoordIntPair(r - 1 - position, r);
+            case 2:
+                return new ChunkCoordIntPair(-r, r - 1 - position);
+            default:
+                return new ChunkCoordIntPair(-r + 1 + position, -r);
+        }
+    }
+
+    private static final class LoadedChunk {
+
+        final Chunk chunk;
+        final long index;
+
+        LoadedChunk(Chunk chunk, long index) {
+            this.chunk = chunk;
+            this.index = index;
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
+import net.minecraft.world.WorldServer;
+import org.spongepowered.common.util.SpongeHooks;
+
+import java.util.Map;
+
+/**
+ * Pre-generates the chunks of worlds in the background, one
+ * {@link PregenerationTask} per world.
+ *
+ * <p>Tasks are ticked by their world and resumed when their world is loaded
+ * again after a restart.</p>
+ */
+public final class WorldPregenerator {
+
+    private static final WorldPregenerator instance = new WorldPregenerator();
+
+    private final Map<WorldServer, PregenerationTask> tasks = new MapMaker().weakKeys().makeMap();
+
+    private WorldPregenerator() {
+    }
+
+    public static WorldPregenerator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts pre-generating the chunks within a shape around a center chunk,
+     * replacing any running task of the world.
+     *
+     * @param world The world
+     * @param centerX The x coordinate of the center chunk
+     * @param centerZ The z coordinate of the center chunk
+     * @param radius The radius in chunks
+     * @param shape The shape
+     * @return The new task
+     */
+    public PregenerationTask start(WorldServer world, int centerX, int centerZ, int radius, PregenerationTask.Shape shape) {
+        stop(world);
+        PregenerationTask task = new PregenerationTask(world, centerX, centerZ, Math.max(0, radius), shape, 0, 0);
+        this.tasks.put(world, task);
+        task.persist();
+        return task;
+    }
+
+    /**
+     * Stops the task of a world. Its progress is discarded, so it is not
+     * resumed after a restart.
+     *
+     * @param world The world
+     * @return Whether a task was running
+     */
+    public boolean stop(WorldServer world) {
+        PregenerationTask task = this.tasks.remove(world);
+        if (task == null) {
+            return false;
+        }
+        task.stop();
+        return true;
+    }
+
+    /**
+     * Resumes the unfinished task of a world, if there is one.
+     *
+     * @param world The world
+     * @return The resumed task, if there is one
+     */
+    public Optional<PregenerationTask> resume(WorldServer world) {
+        PregenerationTask task = this.tasks.get(world);
+        if (task == null) {
+            task = PregenerationTask.load(world);
+            if (task == null) {
+                return Optional.absent();
+            }
+            this.tasks.put(world, task);
+            SpongeHooks.logInfo("Resuming the pre-generation of world {0} at {1}%", world.getWorldInfo().getWorldName(),
+                    (int) (task.getProgress() * 100));
+        }
+        return Optional.of(task);
+    }
+
+    public Optional<PregenerationTask> getTask(WorldServer world) {
+        return Optional.fromNullable(this.tasks.get(world));
+    }
+
+    /**
+     * Runs the task of a world, called once per tick of the world.
+     *
+     * @param world The world
+     */
+    public void tick(WorldServer world) {
+        if (this.tasks.isEmpty()) {
+            return;
+        }
+        PregenerationTask task = this.tasks.get(world);
+        if (task == null) {
+            return;
+        }
+        task.tick();
+        if (task.isDone()) {
+            this.tasks.remove(world);
+            task.persist();
+            SpongeHooks.logInfo("Finished the pre-generation of world {0}, generated {1} chunks", world.getWorldInfo().getWorldName(),
+                    task.getGenerated());
+        }
+    }
+
+    /**
+     * Writes the progress of the task of a world, called when the world is
+     * saved.
+     *
+     * @param world The world
+     */
+    public void save(WorldServer world) {
+        PregenerationTask task = this.tasks.get(world);
+        if (task != null) {
+            task.persist();
+        }
+    }
+
+}
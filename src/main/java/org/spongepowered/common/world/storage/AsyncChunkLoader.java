@@ -0,0 +1,251 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.storage.IChunkLoader;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.api.world.Chunk;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.util.SpongeHooks;
+import org.spongepowered.common.world.gen.ChunkGenerationPipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads the chunks of a world without blocking the main thread on disk I/O.
+ *
+ * <p>Region files are read and the chunk data is decompressed and parsed on
+ * worker threads. The parsed data is then queued and turned into a
+ * {@link net.minecraft.world.chunk.Chunk} on the main thread, at the start of
+ * the next world tick, as that creates and registers the entities and tile
+ * entities of the chunk.</p>
+ */
+public final class AsyncChunkLoader {
+
+    private static final int WORKER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final ExecutorService executor = createExecutor();
+
+    private final WorldServer world;
+    private final ConcurrentMap<Long, PendingChunk> pendingChunks = new ConcurrentHashMap<Long, PendingChunk>();
+    private final Queue<PendingChunk> readChunks = new ConcurrentLinkedQueue<PendingChunk>();
+
+    public AsyncChunkLoader(WorldServer world) {
+        this.world = world;
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("Sponge Chunk Loader #%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Loads the chunk at the given chunk coordinates. Requests for a chunk
+     * that is already being loaded share the same future.
+     *
+     * <p>If the chunk was never saved and {@code generate} is true, it is
+     * generated on the main thread when its turn in the queue comes, together
+     * with the other missing chunks of that tick.</p>
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @param generate Whether to generate the chunk if it does not exist
+     * @return The future chunk, absent if it neither exists nor was generated
+     */
+    public ListenableFuture<Optional<Chunk>> loadChunk(int x, int z, boolean generate) {
+        ChunkProviderServer provider = this.world.theChunkProviderServer;
+        if (MinecraftServer.getServer().isCallingFromMinecraftThread() && provider.chunkExists(x, z)) {
+            return Futures.immediateFuture(Optional.of((Chunk) provider.provideChunk(x, z)));
+        }
+
+        long key = ChunkCoordIntPair.chunkXZ2Int(x, z);
+        PendingChunk pending = new PendingChunk(key, x, z, generate);
+        while (true) {
+            PendingChunk existing = this.pendingChunks.putIfAbsent(key, pending);
+            if (existing == null) {
+                executor.execute(pending);
+                return pending.future;
+            }
+            if (!generate || existing.requestGeneration()) {
+                return existing.future;
+            }
+            // Too late to ask the main thread for generation, start over
+            this.pendingChunks.remove(key, existing);
+        }
+    }
+
+    /**
+     * Turns the chunk data read since the last call into loaded chunks and
+     * completes their futures. Called on the main thread once per tick.
+     */
+    public void integrateLoadedChunks() {
+        if (this.readChunks.isEmpty()) {
+            return;
+        }
+        long budget = TimeUnit.MILLISECONDS.toNanos(Math.max(1, SpongeHooks.getConfigSnapshot(this.world).getAsyncLoadTickBudget()));
+        long start = System.nanoTime();
+        List<PendingChunk> missingChunks = null;
+        PendingChunk pending;
+        while (System.nanoTime() - start < budget && (pending = this.readChunks.poll()) != null) {
+            this.pendingChunks.remove(pending.key);
+            boolean generate = pending.claim();
+            try {
+                net.minecraft.world.chunk.Chunk chunk = integrate(pending);
+                if (chunk == null && generate) {
+                    if (missingChunks == null) {
+                        missingChunks = new ArrayList<PendingChunk>();
+                    }
+                    missingChunks.add(pending);
+                } else {
+                    pending.future.set(Optional.fromNullable((Chunk) chunk));
+                }
+            } catch (Throwable t) {
+                pending.future.setException(t);
+            }
+        }
+        if (missingChunks != null) {
+            generate(missingChunks);
+        }
+    }
+
+    /**
+     * Generates the missing chunks of this tick together, so that their
+     * generator populators can run in parallel.
+     */
+    private void generate(List<PendingChunk> missingChunks) {
+        List<ChunkCoordIntPair> positions = new ArrayList<ChunkCoordIntPair>(missingChunks.size());
+        for (PendingChunk pending : missingChunks) {
+            positions.add(new ChunkCoordIntPair(pending.x, pending.z));
+        }
+        List<net.minecraft.world.chunk.Chunk> chunks;
+        try {
+            chunks = ChunkGenerationPipeline.loadOrGenerateChunks(this.world, positions);
+        } catch (Throwable t) {
+            for (PendingChunk pending : missingChunks) {
+                pending.future.setException(t);
+            }
+            return;
+        }
+        for (int i = 0; i < missingChunks.size(); i++) {
+            missingChunks.get(i).future.set(Optional.fromNullable((Chunk) chunks.get(i)));
+        }
+    }
+
+    @Nullable
+    private net.minecraft.world.chunk.Chunk integrate(PendingChunk pending) {
+        ChunkProviderServer provider = this.world.theChunkProviderServer;
+        if (provider.chunkExists(pending.x, pending.z)) {
+            // Loaded synchronously while the data was being read
+            return provider.provideChunk(pending.x, pending.z);
+        }
+        if (pending.data != null) {
+            net.minecraft.world.chunk.Chunk chunk = ((IMixinChunkProviderServer) provider).loadChunkFromData(pending.x, pending.z, pending.data);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        // Missing chunks are generated in a batch by the caller
+        return null;
+    }
+
+    private final class PendingChunk implements Runnable {
+
+        final long key;
+        final int x;
+        final int z;
+        final SettableFuture<Optional<Chunk>> future = SettableFuture.create();
+        // Guarded by this, the main thread claims the chunk before it reads generate
+        private boolean generate;
+        private boolean claimed;
+        // Written by the worker, read on the main thread after the queue hand-off
+        @Nullable NBTTagCompound data;
+
+        PendingChunk(long key, int x, int z, boolean generate) {
+            this.key = key;
+            this.x = x;
+            this.z = z;
+            this.generate = generate;
+        }
+
+        /**
+         * Asks for the chunk to be generated if it doesn't exist.
+         *
+         * @return False if the main thread already decided without it
+         */
+        synchronized boolean requestGeneration() {
+            if (this.claimed) {
+                return false;
+            }
+            this.generate = true;
+            return true;
+        }
+
+        synchronized boolean claim() {
+            this.claimed = true;
+            return this.generate;
+        }
+
+        @Override
+        public void run() {
+            IChunkLoader loader = ((IMixinChunkProviderServer) AsyncChunkLoader.this.world.theChunkProviderServer).getChunkLoader();
+            if (loader instanceof IMixinAnvilChunkLoader) {
+                try {
+                    this.data = ((IMixinAnvilChunkLoader) loader).readChunkData(this.x, this.z);
+                } catch (IOException e) {
+                    Sponge.getLogger().error("Failed to read chunk [{}, {}]", this.x, this.z, e);
+                }
+            }
+            AsyncChunkLoader.this.readChunks.add(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the chunk reads and writes of all worlds.
+ */
+public final class ChunkIOCounters {
+
+    private static final ChunkIOCounters instance = new ChunkIOCounters();
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong readNanos = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private ChunkIOCounters() {
+    }
+
+    public static ChunkIOCounters getInstance() {
+        return instance;
+    }
+
+    public void recordRead(long nanos) {
+        this.reads.incrementAndGet();
+        this.readNanos.addAndGet(nanos);
+    }
+
+    public void recordWrite(long nanos, int bytes) {
+        this.writes.incrementAndGet();
+        this.writeNanos.addAndGet(nanos);
+        this.bytesWritten.addAndGet(bytes);
+    }
+
+    public long getReads() {
+        return this.reads.get();
+    }
+
+    /**
+     * Gets the total time spent reading chunks from region files.
+     *
+     * @return The read time, in nanoseconds
+     */
+    public long getReadNanos() {
+        return this.readNanos.get();
+    }
+
+    public long getWrites() {
+        return this.writes.get();
+    }
+
+    /**
+     * Gets the total time spent compressing and writing chunks.
+     *
+     * @return The write time, in nanoseconds
+     */
+    public long getWriteNanos() {
+        return this.writeNanos.get();
+    }
+
+    /**
+     * Gets the number of compressed bytes written to region files.
+     *
+     * @return The bytes written
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten.get();
+    }
+
+}
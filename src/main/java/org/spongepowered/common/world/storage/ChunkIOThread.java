@@ -0,0 +1,229 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.chunk.storage.RegionFile;
+import net.minecraft.world.chunk.storage.RegionFileCache;
+import org.spongepowered.common.Sponge;
+import org.spongepowered.common.interfaces.IMixinAnvilChunkLoader;
+import org.spongepowered.common.interfaces.IMixinRegionFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the saved chunks of all worlds on a single "Sponge Chunk I/O"
+ * thread, in place of {@link net.minecraft.world.storage.ThreadedFileIOBase}.
+ *
+ * <p>Chunk loaders queue themselves when a chunk is saved. The thread then
+ * takes all chunks of a loader that are waiting at that time as one batch
+ * and writes it region by region, in the order of the chunks in each file.
+ * Repeated saves of a chunk before it is written are coalesced by the
+ * pending map of the loader. A chunk stays in that map until it was
+ * written, so it is never read back stale from its region file.</p>
+ *
+ * <p>Region files are opened through {@link RegionFileCache}, so reads
+ * and writes share the same files as the rest of the game.</p>
+ */
+public final class ChunkIOThread implements Runnable {
+
+    // Saving threads other than the main thread wait once a loader has this many chunks pending
+    private static final int MAX_PENDING_CHUNKS = 4096;
+
+    private static final ChunkIOThread instance = new ChunkIOThread();
+
+    // Guarded by this
+    private final Set<IMixinAnvilChunkLoader> queuedLoaders = new LinkedHashSet<IMixinAnvilChunkLoader>();
+    private boolean writing;
+
+    private ChunkIOThread() {
+        Thread thread = new Thread(this, "Sponge Chunk I/O");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static ChunkIOThread getInstance() {
+        return instance;
+    }
+
+    /**
+     * Queues a chunk loader whose pending chunks need to be written.
+     *
+     * @param loader The chunk loader
+     */
+    public synchronized void queue(IMixinAnvilChunkLoader loader) {
+        if (this.queuedLoaders.add(loader)) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until a chunk loader has at most {@link #MAX_PENDING_CHUNKS}
+     * chunks pending. The main thread never waits, its saves only grow the
+     * queue.
+     *
+     * @param loader The chunk loader
+     * @param mainThread Whether the caller is the main thread
+     */
+    public void awaitCapacity(IMixinAnvilChunkLoader loader, boolean mainThread) {
+        if (mainThread || loader.getPendingChunkCount() <= MAX_PENDING_CHUNKS) {
+            return;
+        }
+        synchronized (this) {
+            while (loader.getPendingChunkCount() > MAX_PENDING_CHUNKS) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until all queued chunks were written.
+     */
+    public synchronized void waitForFinish() {
+        while (this.writing || !this.queuedLoaders.isEmpty()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            IMixinAnvilChunkLoader loader;
+            synchronized (this) {
+                this.writing = false;
+                while (this.queuedLoaders.isEmpty()) {
+                    notifyAll();
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Iterator<IMixinAnvilChunkLoader> it = this.queuedLoaders.iterator();
+                loader = it.next();
+                it.remove();
+                this.writing = true;
+            }
+            try {
+                loader.writePendingChunks();
+            } catch (Throwable t) {
+                Sponge.getLogger().error("Failed to write chunks", t);
+            }
+        }
+    }
+
+    private synchronized void onChunkWritten() {
+        notifyAll();
+    }
+
+    /**
+     * Writes a batch of pending chunks of a loader. Called by the loader,
+     * which makes sure that only one thread writes its chunks at a time.
+     *
+     * @param loader The chunk loader
+     * @param saveLocation The directory of the region folder
+     * @param chunks The chunks to write
+     */
+    public static void writeChunks(IMixinAnvilChunkLoader loader, File saveLocation, Map<ChunkCoordIntPair, NBTTagCompound> chunks) {
+        ChunkIOCounters counters = ChunkIOCounters.getInstance();
+        List<PendingWrite> batch = new ArrayList<PendingWrite>(chunks.size());
+        for (Map.Entry<ChunkCoordIntPair, NBTTagCompound> entry : chunks.entrySet()) {
+            ChunkCoordIntPair pos = entry.getKey();
+            RegionFile region = RegionFileCache.createOrLoadRegionFile(saveLocation, pos.chunkXPos, pos.chunkZPos);
+            int sector = ((IMixinRegionFile) region).getSector(pos.chunkXPos & 31, pos.chunkZPos & 31);
+            batch.add(new PendingWrite(pos, entry.getValue(), region, sector));
+        }
+        // Write region by region, in the order of the chunks in the file
+        Collections.sort(batch);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        for (PendingWrite write : batch) {
+            long start = System.nanoTime();
+            try {
+                buffer.reset();
+                DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(buffer));
+                CompressedStreamTools.write(write.data, out);
+                out.close();
+                ((IMixinRegionFile) write.region).writeChunk(write.pos.chunkXPos & 31, write.pos.chunkZPos & 31, buffer.toByteArray(),
+                        buffer.size());
+                counters.recordWrite(System.nanoTime() - start, buffer.size());
+            } catch (IOException e) {
+                Sponge.getLogger().error("Failed to save chunk [{}, {}]", write.pos.chunkXPos, write.pos.chunkZPos, e);
+            }
+            loader.onChunkWritten(write.pos, write.data);
+            instance.onChunkWritten();
+        }
+    }
+
+    private static final class PendingWrite implements Comparable<PendingWrite> {
+
+        final ChunkCoordIntPair pos;
+        final NBTTagCompound data;
+        final RegionFile region;
+        final int sector;
+        // Regions are ordered by their coordinates
+        final long regionKey;
+
+        PendingWrite(ChunkCoordIntPair pos, NBTTagCompound data, RegionFile region, int sector) {
+            this.pos = pos;
+            this.data = data;
+            this.region = region;
+            this.sector = sector;
+            this.regionKey = ChunkCoordIntPair.chunkXZ2Int(pos.chunkXPos >> 5, pos.chunkZPos >> 5);
+        }
+
+        @Override
+        public int compareTo(PendingWrite other) {
+            if (this.regionKey != other.regionKey) {
+                return this.regionKey < other.regionKey ? -1 : 1;
+            }
+            return this.sector < other.sector ? -1 : this.sector == other.sector ? 0 : 1;
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.common.configuration.SpongeConfigSnapshot;
+import org.spongepowered.common.interfaces.IMixinChunkProviderServer;
+import org.spongepowered.common.util.SpongeHooks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the chunks of a world over several ticks.
+ *
+ * <p>A save round queues every loaded chunk. Each tick, queued chunks that
+ * were modified are saved until either the time budget or the chunk limit
+ * of the world config is reached. Chunks are saved through the chunk
+ * provider and loader, as by a full save.</p>
+ *
+ * <p>Only the saving is spread over ticks: each chunk is still encoded to
+ * NBT on the main thread, so the budget covers the encoding. The encoded
+ * chunk is handed to the loader's pending map, which other code (such as
+ * asynchronous chunk loading) reads directly and so must hold the complete
+ * chunk. Only the region writes happen on the chunk I/O thread.</p>
+ *
+ * <p>If level saving is turned off during a round, the round is finished at
+ * once, so that no chunks are written after the world files are expected to
+ * stay unchanged.</p>
+ */
+public final class IncrementalChunkSaver {
+
+    // The savers with a round in progress, and what to run once none is. Main thread only.
+    private static final Set<IncrementalChunkSaver> activeSavers =
+            Collections.newSetFromMap(new IdentityHashMap<IncrementalChunkSaver, Boolean>());
+    private static final List<Runnable> completionTasks = new ArrayList<Runnable>();
+
+    private final WorldServer world;
+    private final Queue<Chunk> queuedChunks = new ArrayDeque<Chunk>();
+
+    public IncrementalChunkSaver(WorldServer world) {
+        this.world = world;
+    }
+
+    public static boolean isEnabled(WorldServer world) {
+        return SpongeHooks.getConfigSnapshot(world).isIncrementalSave();
+    }
+
+    /**
+     * Runs a task once the save rounds of all worlds are done, such as the
+     * success message of a save command. Runs it right away if no round is
+     * in progress.
+     *
+     * @param task The task
+     */
+    public static void runWhenDone(Runnable task) {
+        if (activeSavers.isEmpty()) {
+            task.run();
+        } else {
+            completionTasks.add(task);
+        }
+    }
+
+    /**
+     * Starts a save round. If the previous round is not done yet, its
+     * remaining chunks are saved in the new round.
+     */
+    @SuppressWarnings("unchecked")
+    public void start() {
+        this.queuedChunks.clear();
+        this.queuedChunks.addAll(this.world.theChunkProviderServer.loadedChunks);
+        if (this.queuedChunks.isEmpty()) {
+            onDone();
+        } else {
+            activeSavers.add(this);
+        }
+    }
+
+    public boolean isSaving() {
+        return !this.queuedChunks.isEmpty();
+    }
+
+    /**
+     * Saves the next queued chunks, called once per tick.
+     */
+    public void tick() {
+        if (this.queuedChunks.isEmpty()) {
+            return;
+        }
+        if (!this.world.theChunkProviderServer.canSave()) {
+            // Saving was turned off, nothing may be written after this tick
+            finish();
+            return;
+        }
+        SpongeConfigSnapshot config = SpongeHooks.getConfigSnapshot(this.world);
+        long budget = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getSaveTickBudget()));
+        int limit = Math.max(1, config.getSaveChunksPerTick());
+
+        long start = System.nanoTime();
+        int saved = 0;
+        Chunk chunk;
+        while (saved < limit && System.nanoTime() - start < budget && (chunk = this.queuedChunks.poll()) != null) {
+            if (saveChunk(chunk)) {
+                saved++;
+            }
+        }
+        if (this.queuedChunks.isEmpty()) {
+            onDone();
+        }
+    }
+
+    /**
+     * Saves all remaining queued chunks at once.
+     */
+    public void finish() {
+        Chunk chunk;
+        while ((chunk = this.queuedChunks.poll()) != null) {
+            saveChunk(chunk);
+        }
+        onDone();
+    }
+
+    private void onDone() {
+        if (activeSavers.remove(this) && activeSavers.isEmpty()) {
+            List<Runnable> tasks = new ArrayList<Runnable>(completionTasks);
+            completionTasks.clear();
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+
+    private boolean saveChunk(Chunk chunk) {
+        ChunkProviderServer provider = this.world.theChunkProviderServer;
+        // Skip chunks that were unloaded, they were saved then
+        if (!provider.chunkExists(chunk.xPosition, chunk.zPosition) || provider.provideChunk(chunk.xPosition, chunk.zPosition) != chunk) {
+            return false;
+        }
+        return ((IMixinChunkProviderServer) provider).saveChunk(chunk);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.scheduler;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares scanning a task map on every tick, like the SyncScheduler used to,
+ * with expiring tasks from a {@link TickWheel}.
+ *
+ * <p>Run the main method manually, it is not part of the tests.</p>
+ */
+public final class TickWheelBenchmark {
+
+    private static final int TASKS = 10000;
+    private static final int TICKS = 20 * 60 * 10;
+    private static final int ROUNDS = 5;
+
+    private TickWheelBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        long[] periods = new long[TASKS];
+        Random random = new Random(0);
+        for (int i = 0; i < TASKS; i++) {
+            periods[i] = 1 + random.nextInt(20 * 60);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long runs = scanMap(periods);
+            long scanTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long wheelRuns = advanceWheel(periods);
+            long wheelTime = System.nanoTime() - start;
+
+            if (runs != wheelRuns) {
+                throw new AssertionError("Map scan ran " + runs + " tasks, the wheel " + wheelRuns);
+            }
+            System.out.printf("%d tasks, %d ticks, %d runs: map scan %.1f us/tick, tick wheel %.1f us/tick%n", TASKS, TICKS, runs,
+                    scanTime / 1000.0 / TICKS, wheelTime / 1000.0 / TICKS);
+        }
+    }
+
+    private static long scanMap(long[] periods) {
+        Map<UUID, long[]> tasks = new ConcurrentHashMap<UUID, long[]>();
+        for (long period : periods) {
+            // { period, timestamp }
+            tasks.put(UUID.randomUUID(), new long[] {period, 0L});
+        }
+
+        long runs = 0;
+        for (long tick = 1; tick <= TICKS; tick++) {
+            for (long[] task : tasks.values()) {
+                if (task[0] <= tick - task[1]) {
+                    task[1] = tick;
+                    runs++;
+                }
+            }
+        }
+        return runs;
+    }
+
+    private static long advanceWheel(long[] periods) {
+        TickWheel<long[]> wheel = new TickWheel<long[]>(0L);
+        for (long period : periods) {
+            wheel.add(new long[] {period}, period);
+        }
+
+        long runs = 0;
+        for (int tick = 1; tick <= TICKS; tick++) {
+            for (TickWheel.Entry<long[]> entry = wheel.advance(); entry != null; entry = entry.getNext()) {
+                wheel.add(entry.getValue(), tick + entry.getValue()[0]);
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+}
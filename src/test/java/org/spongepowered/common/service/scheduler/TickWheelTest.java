@@ -0,0 +1,113 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.service.scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TickWheelTest {
+
+    @Test
+    public void testExpiresOnDeadline() {
+        TickWheel<String> wheel = new TickWheel<String>(0L);
+        wheel.add("a", 1);
+        wheel.add("b", 64);
+        wheel.add("c", 4097);
+        Assert.assertEquals(3, wheel.size());
+
+        Assert.assertEquals("a", expireUntil(wheel, 1));
+        Assert.assertEquals("b", expireUntil(wheel, 64));
+        Assert.assertEquals("c", expireUntil(wheel, 4097));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRemove() {
+        TickWheel<String> wheel = new TickWheel<String>(10L);
+        TickWheel.Entry<String> entry = wheel.add("a", 20);
+        Assert.assertTrue(wheel.remove(entry));
+        Assert.assertFalse(wheel.remove(entry));
+        Assert.assertEquals(0, wheel.size());
+        Assert.assertNull(expireUntil(wheel, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeadlineInThePast() {
+        new TickWheel<String>(10L).add("a", 10);
+    }
+
+    @Test
+    public void testRandomDeadlines() {
+        Random random = new Random(0);
+        long start = (1L << 24) - 100;
+        TickWheel<Integer> wheel = new TickWheel<Integer>(start);
+
+        List<TickWheel.Entry<Integer>> entries = new ArrayList<TickWheel.Entry<Integer>>();
+        for (int i = 0; i < 10000; i++) {
+            // Every tenth deadline is far enough away to end up in the overflow
+            long delay = i % 10 == 0 ? random.nextInt(1 << 25) : random.nextInt(5000);
+            entries.add(wheel.add(i, start + 1 + delay));
+        }
+
+        Set<TickWheel.Entry<Integer>> removed = new HashSet<TickWheel.Entry<Integer>>();
+        for (int i = 0; i < 1000; i++) {
+            TickWheel.Entry<Integer> entry = entries.get(random.nextInt(entries.size()));
+            if (wheel.remove(entry)) {
+                removed.add(entry);
+            }
+        }
+
+        int expired = 0;
+        while (wheel.getCurrentTick() < start + (1 << 25) + 1) {
+            for (TickWheel.Entry<Integer> entry = wheel.advance(); entry != null; entry = entry.getNext()) {
+                Assert.assertEquals(wheel.getCurrentTick(), entry.getDeadline());
+                Assert.assertFalse(removed.contains(entry));
+                expired++;
+            }
+        }
+        Assert.assertEquals(entries.size() - removed.size(), expired);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    private static <T> T expireUntil(TickWheel<T> wheel, long tick) {
+        T last = null;
+        while (wheel.getCurrentTick() < tick) {
+            TickWheel.Entry<T> entry = wheel.advance();
+            if (entry != null) {
+                Assert.assertEquals(wheel.getCurrentTick(), entry.getDeadline());
+                Assert.assertNull(entry.getNext());
+                last = entry.getValue();
+            }
+        }
+        return last;
+    }
+
+}
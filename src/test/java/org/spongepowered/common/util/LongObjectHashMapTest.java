@@ -0,0 +1,88 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(42);
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>(4);
+        Map<Long, String> expected = new HashMap<Long, String>();
+        for (int i = 0; i < 100000; i++) {
+            // Packed chunk coordinates around the origin, like loaded chunks
+            long key = random.nextInt(200) - 100 & 0xFFFFFFFFL | (long) (random.nextInt(200) - 100) << 32;
+            switch (random.nextInt(3)) {
+                case 0:
+                    Assert.assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.get(key), map.get(key));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        Assert.assertEquals(new HashSet<String>(expected.values()), new HashSet<String>(map.values()));
+    }
+
+    @Test
+    public void testSlotIteration() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+        for (long key = -50; key < 50; key++) {
+            map.put(key, Long.toString(key));
+        }
+        int count = 0;
+        for (int slot = 0; slot < map.getSlotCount(); slot++) {
+            String value = map.getSlot(slot);
+            if (value != null) {
+                Assert.assertEquals(Long.toString(map.getSlotKey(slot)), value);
+                count++;
+            }
+        }
+        Assert.assertEquals(100, count);
+    }
+
+    @Test
+    public void testValuesAreCachedUntilModified() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+        map.put(1, "a");
+        Assert.assertSame(map.values(), map.values());
+        map.put(2, "b");
+        Assert.assertEquals(2, map.values().size());
+        map.remove(1);
+        Assert.assertEquals(1, map.values().size());
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.gen;
+
+import net.minecraft.world.ChunkCoordIntPair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class PregenerationTaskTest {
+
+    @Test
+    public void testSpiralCoversSquareOnce() {
+        int radius = 20;
+        Set<ChunkCoordIntPair> visited = new HashSet<ChunkCoordIntPair>();
+        ChunkCoordIntPair previous = null;
+        for (long index = 0; index < (2L * radius + 1) * (2L * radius + 1); index++) {
+            ChunkCoordIntPair offset = PregenerationTask.getSpiralOffset(index);
+            Assert.assertTrue(Math.abs(offset.chunkXPos) <= radius && Math.abs(offset.chunkZPos) <= radius);
+            Assert.assertTrue(visited.add(offset));
+            if (previous != null) {
+                // Each chunk is next to the previous one
+                int distance = Math.abs(offset.chunkXPos - previous.chunkXPos) + Math.abs(offset.chunkZPos - previous.chunkZPos);
+                Assert.assertEquals(1, distance);
+            }
+            previous = offset;
+        }
+    }
+
+    @Test
+    public void testSpiralStartsAtCenter() {
+        Assert.assertEquals(new ChunkCoordIntPair(0, 0), PregenerationTask.getSpiralOffset(0));
+        Assert.assertEquals(new ChunkCoordIntPair(1, 0), PregenerationTask.getSpiralOffset(1));
+        Assert.assertEquals(new ChunkCoordIntPair(1, -1), PregenerationTask.getSpiralOffset(8));
+        Assert.assertEquals(new ChunkCoordIntPair(2, -1), PregenerationTask.getSpiralOffset(9));
+    }
+
+}